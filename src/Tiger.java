@@ -1,66 +1,144 @@
 //This is a github branch test
 //This is brach 2
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
 
+import lexer.BinaryTokenDump;
+import lexer.LexicalError;
 import lexer.Lexer;
-import lexer.Token;
+import lexer.Source;
+import lexer.TokenBuffer;
+import lexer.TokenDump;
 import lexer.Token.Kind;
 
 import control.CommandLine;
+import control.TigerCompiler;
+import control.Options;
 
-import parser.Parser;
+import util.Diagnostic;
 
 public class Tiger
 {
   public static void main(String[] args)
   {
-    InputStream fstream;
-    Parser parser;
+    Source source;
+    TigerCompiler.Result result;
 
     // ///////////////////////////////////////////////////////
     // handle command line arguments
     CommandLine cmd = new CommandLine();
-    String fname = cmd.scan(args);
+    String fname;
+    try {
+      fname = cmd.scan(args);
+    } catch (CommandLine.BadArgument e) {
+      System.out.println(e.getMessage());
+      if (e.showOptions)
+        cmd.output();
+      System.exit(1);
+      return;
+    }
+    if (cmd.help()) {
+      cmd.usage();
+      System.exit(1);
+    }
     if (fname == null) {
       cmd.usage();
       return;
     }
+    Options options = cmd.options();
 
     // /////////////////////////////////////////////////////
     // it would be helpful to be able to test the lexer
     // independently.
-    if (control.Control.testlexer) {
-      System.out.println("Testing the lexer. All tokens:");
+    if (options.testlexer) {
+      String dumpFile = options.binaryTokenDump;
+      if (dumpFile == null)
+        System.out.println("Testing the lexer. All tokens:");
+      TokenDump dump = TokenDump.stdout();
       try {
-        fstream = new BufferedInputStream(new FileInputStream(fname));
-        Lexer lexer = new Lexer(fname, fstream);
-        Token token = lexer.nextToken();
-        while (token.kind!=Kind.TOKEN_EOF){
-          System.out.println(token.toString());
-          token = lexer.nextToken();
+        source = Source.open(fname);
+        try {
+          TokenBuffer tokens = Lexer.tokenize(fname, source, options,
+              options.lex ? dump : null);
+          TokenBuffer.Cursor token = tokens.cursor();
+          if (dumpFile != null) {
+            try (OutputStream out = new FileOutputStream(dumpFile)) {
+              BinaryTokenDump binary = new BinaryTokenDump(out);
+              while (true) {
+                binary.write(tokens, token.index());
+                if (token.kind == Kind.TOKEN_EOF)
+                  break;
+                token.advance();
+              }
+              binary.flush();
+            }
+          } else {
+            while (token.kind!=Kind.TOKEN_EOF){
+              dump.write(tokens, token.index());
+              token.advance();
+            }
+          }
+        } finally {
+          source.close();
         }
-        fstream.close();
+      } catch (LexicalError e) {
+        // as a compilation reports it; a dump with no EOF record
+        // would not read back
+        dump.flush();
+        if (dumpFile != null)
+          new File(dumpFile).delete();
+        report(Collections.singletonList(e.diagnostic()));
       } catch (Exception e) {
+        dump.flush();
+        if (dumpFile != null)
+          new File(dumpFile).delete();
         e.printStackTrace();
       }
+      dump.flush();
       System.exit(1);
     }
 
     // /////////////////////////////////////////////////////////
     // normal compilation phases.
     try {
-      fstream = new BufferedInputStream(new FileInputStream(fname));
-      parser = new Parser(fname, fstream);
-
-      parser.parse();
-
-      fstream.close();
+      result = new TigerCompiler(options).compile(java.nio.file.Paths.get(fname));
     } catch (Exception e) {
       e.printStackTrace();
       System.exit(1);
+      return;
+    }
+    report(result.diagnostics);
+
+    // /////////////////////////////////////////////////////////
+    // elaboration dumps
+    if (result.classTable != null)
+      result.classTable.dump();
+    if (result.methodTable != null)
+      result.methodTable.dump();
+    // the dumps did not need the method bodies, but they must be
+    // checked all the same
+    if (result.skimmed) {
+      result.ast.parseBodies();
+      report(result.diagnostics);
+    }
+    return;
+  }
+
+  // report all the errors at once, lexical and syntax errors
+  // alike, and exit if there are any
+  private static void report(List<Diagnostic> diagnostics)
+  {
+    int errors = diagnostics.size();
+    if (errors > 0) {
+      for (Diagnostic d : diagnostics)
+        System.out.println(d);
+      System.out.println(errors + ((errors == 1) ? " error" : " errors")
+          + ": compilation aborting...");
+      System.exit(1);
     }
     return;
   }
@@ -33,7 +33,26 @@ public class CommandLine
 
   }
 
+  // A command line that cannot be scanned; the message says why.
+  public static class BadArgument extends RuntimeException
+  {
+    private static final long serialVersionUID = 1L;
+
+    // whether to list the options after the message
+    public final boolean showOptions;
+
+    BadArgument(String message, boolean showOptions)
+    {
+      super(message);
+      this.showOptions = showOptions;
+    }
+  }
+
   private LinkedList<Arg<Object>> args;
+  // the options scanned so far
+  private Options.Builder options = new Options.Builder();
+  // whether "-help" was given
+  private boolean help = false;
 
   @SuppressWarnings("unchecked")
   public CommandLine()
@@ -46,13 +65,11 @@ public class CommandLine
           {
             String s = (String) ss;
             if (s.equals("classTable")) {
-              control.Control.elabClassTable = true;
+              options.elabClassTable(true);
             } else if (s.equals("methodTable"))
-              Control.elabMethodTable = true;
+              options.elabMethodTable(true);
             else {
-              System.out.println("bad argument: " + s);
-              output();
-              System.exit(1);
+              throw new BadArgument("bad argument: " + s, true);
             }
             return;
           }
@@ -61,8 +78,7 @@ public class CommandLine
           @Override
           public void f(Object s)
           {
-            usage();
-            System.exit(1);
+            help = true;
             return;
           }
         }), new Arg<Object>("lex", null, "show the result of lexical analysis",
@@ -70,7 +86,120 @@ public class CommandLine
           @Override
           public void f(Object s)
           {
-            Control.lex = true;
+            options.lex(true);
+            return;
+          }
+        }), new Arg<Object>("lexer", "<arg>",
+        "which lexer to use: hand (default) or dfa", Kind.String,
+        new F<Object>() {
+          @Override
+          public void f(Object ss)
+          {
+            String s = (String) ss;
+            if (s.equals("hand"))
+              options.dfaLexer(false);
+            else if (s.equals("dfa"))
+              options.dfaLexer(true);
+            else {
+              throw new BadArgument("bad argument: " + s, true);
+            }
+            return;
+          }
+        }), new Arg<Object>("parallellex", "<bytes>",
+        "lex files of at least <bytes> bytes in parallel (-1: never)",
+        Kind.Int, new F<Object>() {
+          @Override
+          public void f(Object n)
+          {
+            options.parallelLexThreshold((Integer) n);
+            return;
+          }
+        }), new Arg<Object>("parallelparse", "<classes>",
+        "parse files of at least <classes> classes in parallel (untraced)",
+        Kind.Int, new F<Object>() {
+          @Override
+          public void f(Object n)
+          {
+            options.parallelParseThreshold((Integer) n);
+            return;
+          }
+        }), new Arg<Object>("parser", "<arg>",
+        "which parser to use: hand (default) or ll", Kind.String,
+        new F<Object>() {
+          @Override
+          public void f(Object ss)
+          {
+            String s = (String) ss;
+            if (s.equals("hand"))
+              options.llParser(false);
+            else if (s.equals("ll"))
+              options.llParser(true);
+            else {
+              throw new BadArgument("bad argument: " + s, true);
+            }
+            return;
+          }
+        }), new Arg<Object>("pipeline", null,
+        "lex on a separate thread, ahead of the parser", Kind.Empty,
+        new F<Object>() {
+          @Override
+          public void f(Object s)
+          {
+            options.pipelineLex(true);
+            return;
+          }
+        }), new Arg<Object>("trace", "<arg>",
+        "what the parser traces: off (default), tokens or productions",
+        Kind.String, new F<Object>() {
+          @Override
+          public void f(Object ss)
+          {
+            String s = (String) ss;
+            if (s.equals("off"))
+              options.trace(Options.Trace.OFF);
+            else if (s.equals("tokens"))
+              options.trace(Options.Trace.TOKENS);
+            else if (s.equals("productions"))
+              options.trace(Options.Trace.PRODUCTIONS);
+            else {
+              throw new BadArgument("bad argument: " + s, true);
+            }
+            return;
+          }
+        }), new Arg<Object>("tracefile", "<file>",
+        "write the parser's trace to <file>, in the background",
+        Kind.String, new F<Object>() {
+          @Override
+          public void f(Object s)
+          {
+            options.traceFile((String) s);
+            return;
+          }
+        }), new Arg<Object>("tokencache", "<dir>",
+        "reuse the tokens of unchanged files, cached in <dir>",
+        Kind.String, new F<Object>() {
+          @Override
+          public void f(Object s)
+          {
+            options.tokenCache((String) s);
+            return;
+          }
+        }), new Arg<Object>("tokencachesize", "<MB>",
+        "the most the token cache may hold (default: 256)", Kind.Int,
+        new F<Object>() {
+          @Override
+          public void f(Object n)
+          {
+            options.tokenCacheBytes((Integer) n * 1024L * 1024);
+            return;
+          }
+        }), new Arg<Object>("tokendump", "<file>",
+        "with -testlexer, write a binary token dump to <file>",
+        Kind.String, new F<Object>() {
+          @Override
+          public void f(Object s)
+          {
+            options.binaryTokenDump((String) s);
             return;
           }
         }), new Arg<Object>("testlexer", null,
@@ -78,14 +207,15 @@ public class CommandLine
           @Override
           public void f(Object s)
           {
-            Control.testlexer = true;
+            options.testlexer(true);
             return;
           }
         }));
   }
 
   // scan the command line arguments, return the file name
-  // in it. The file name should be unique.
+  // in it. The file name should be unique. A bad argument
+  // throws BadArgument; scanning stops at "-help".
   public String scan(String[] cargs)
   {
     String filename = null;
@@ -96,8 +226,8 @@ public class CommandLine
           filename = cargs[i];
           continue;
         } else {
-          System.out.println("Error: can only compile one Java file a time");
-          System.exit(1);
+          throw new BadArgument(
+              "Error: can only compile one Java file a time", false);
         }
       } else
         ;
@@ -114,13 +244,13 @@ public class CommandLine
           break;
         default:
           if (i >= cargs.length - 1) {
-            System.out.println(arg.name + ": requires an argument");
-            this.output();
-            System.exit(1);
+            throw new BadArgument(arg.name + ": requires an argument", true);
           }
           break;
         }
-        String theArg = cargs[i];
+        if (arg.kind == Kind.Empty)
+          break;
+        String theArg = cargs[++i];
         switch (arg.kind) {
         case Bool:
           if (theArg.equals("true"))
@@ -128,9 +258,7 @@ public class CommandLine
           else if (theArg.equals("false"))
             arg.action.f(new Boolean(false));
           else {
-            System.out.println(arg.name + ": requires a boolean");
-            this.output();
-            System.exit(1);
+            throw new BadArgument(arg.name + ": requires a boolean", true);
           }
           break;
         case Int:
@@ -138,9 +266,7 @@ public class CommandLine
           try {
             num = Integer.parseInt(theArg);
           } catch (java.lang.NumberFormatException e) {
-            System.out.println(arg.name + ": requires an integer");
-            this.output();
-            System.exit(1);
+            throw new BadArgument(arg.name + ": requires an integer", true);
           }
           arg.action.f(num);
           break;
@@ -157,14 +283,26 @@ public class CommandLine
         break;
       }
       if (!found) {
-        System.out.println("undefined switch: " + cargs[i]);
-        this.output();
-        System.exit(1);
+        throw new BadArgument("undefined switch: " + cargs[i], true);
       }
+      if (this.help)
+        break;
     }
     return filename;
   }
 
+  // the options given on the command line scanned
+  public Options options()
+  {
+    return this.options.build();
+  }
+
+  // whether the command line asked for help
+  public boolean help()
+  {
+    return this.help;
+  }
+
   private void outputSpace(int n)
   {
     if (n < 0)
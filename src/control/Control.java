@@ -1,14 +0,0 @@
-package control;
-
-public class Control
-{
-  // compiler testing and debugging
-  public static boolean testlexer = false;
-  
-  // lexer and parser
-  public static boolean lex = false;
-
-  // elaborator
-  public static boolean elabClassTable = false;
-  public static boolean elabMethodTable = false;
-}
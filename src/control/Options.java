@@ -0,0 +1,199 @@
+package control;
+
+// The options of a compilation. An Options never changes once
+// built, so one may be shared by any number of compilations at
+// once (see TigerCompiler); make one with a Builder, or from a
+// command line with CommandLine.
+public class Options
+{
+  // what the parser traces (see parser.TraceSink): nothing, the
+  // tokens it eats, or those and the productions it completes
+  public enum Trace
+  {
+    OFF, TOKENS, PRODUCTIONS
+  }
+
+  // compiler testing and debugging
+  public final boolean testlexer;
+  // with -testlexer, write a binary dump of the tokens to this
+  // file instead of printing them (see lexer.BinaryTokenDump)
+  public final String binaryTokenDump;
+
+  // lexer and parser
+  // print each token as it is lexed
+  public final boolean lex;
+  // use the table-driven lexer (lexer.DfaLexer)
+  public final boolean dfaLexer;
+  // mapped files of at least this many bytes are lexed in
+  // parallel; a negative value turns parallel lexing off.
+  public final int parallelLexThreshold;
+  // lex on a thread of its own, ahead of the parser
+  public final boolean pipelineLex;
+  // a directory of cached token streams (see lexer.TokenCache),
+  // or null, and the number of bytes it may hold
+  public final String tokenCache;
+  public final long tokenCacheBytes;
+  // files with at least this many class declarations have them
+  // parsed in parallel, unless the parse is traced; a negative
+  // value turns parallel parsing off.
+  public final int parallelParseThreshold;
+  // use the table-driven parser (parser.LLParser)
+  public final boolean llParser;
+  public final Trace trace;
+  // the file the trace goes to, or null for the compiler's output
+  public final String traceFile;
+
+  // elaborator
+  public final boolean elabClassTable;
+  public final boolean elabMethodTable;
+
+  // the options when none are given
+  public static final Options DEFAULT = new Builder().build();
+
+  private Options(Builder b)
+  {
+    this.testlexer = b.testlexer;
+    this.binaryTokenDump = b.binaryTokenDump;
+    this.lex = b.lex;
+    this.dfaLexer = b.dfaLexer;
+    this.parallelLexThreshold = b.parallelLexThreshold;
+    this.pipelineLex = b.pipelineLex;
+    this.tokenCache = b.tokenCache;
+    this.tokenCacheBytes = b.tokenCacheBytes;
+    this.parallelParseThreshold = b.parallelParseThreshold;
+    this.llParser = b.llParser;
+    this.trace = b.trace;
+    this.traceFile = b.traceFile;
+    this.elabClassTable = b.elabClassTable;
+    this.elabMethodTable = b.elabMethodTable;
+  }
+
+  // a builder that starts from these options
+  public Builder toBuilder()
+  {
+    Builder b = new Builder();
+    b.testlexer = this.testlexer;
+    b.binaryTokenDump = this.binaryTokenDump;
+    b.lex = this.lex;
+    b.dfaLexer = this.dfaLexer;
+    b.parallelLexThreshold = this.parallelLexThreshold;
+    b.pipelineLex = this.pipelineLex;
+    b.tokenCache = this.tokenCache;
+    b.tokenCacheBytes = this.tokenCacheBytes;
+    b.parallelParseThreshold = this.parallelParseThreshold;
+    b.llParser = this.llParser;
+    b.trace = this.trace;
+    b.traceFile = this.traceFile;
+    b.elabClassTable = this.elabClassTable;
+    b.elabMethodTable = this.elabMethodTable;
+    return b;
+  }
+
+  // Sets the options one by one, starting from the defaults.
+  public static class Builder
+  {
+    private boolean testlexer = false;
+    private String binaryTokenDump = null;
+    private boolean lex = false;
+    private boolean dfaLexer = false;
+    private int parallelLexThreshold = 8 * 1024 * 1024;
+    private boolean pipelineLex = false;
+    private String tokenCache = null;
+    private long tokenCacheBytes = 256L * 1024 * 1024;
+    private int parallelParseThreshold = -1;
+    private boolean llParser = false;
+    private Trace trace = Trace.OFF;
+    private String traceFile = null;
+    private boolean elabClassTable = false;
+    private boolean elabMethodTable = false;
+
+    public Builder testlexer(boolean on)
+    {
+      this.testlexer = on;
+      return this;
+    }
+
+    public Builder binaryTokenDump(String file)
+    {
+      this.binaryTokenDump = file;
+      return this;
+    }
+
+    public Builder lex(boolean on)
+    {
+      this.lex = on;
+      return this;
+    }
+
+    public Builder dfaLexer(boolean on)
+    {
+      this.dfaLexer = on;
+      return this;
+    }
+
+    public Builder parallelLexThreshold(int bytes)
+    {
+      this.parallelLexThreshold = bytes;
+      return this;
+    }
+
+    public Builder pipelineLex(boolean on)
+    {
+      this.pipelineLex = on;
+      return this;
+    }
+
+    public Builder tokenCache(String dir)
+    {
+      this.tokenCache = dir;
+      return this;
+    }
+
+    public Builder tokenCacheBytes(long bytes)
+    {
+      this.tokenCacheBytes = bytes;
+      return this;
+    }
+
+    public Builder parallelParseThreshold(int classes)
+    {
+      this.parallelParseThreshold = classes;
+      return this;
+    }
+
+    public Builder llParser(boolean on)
+    {
+      this.llParser = on;
+      return this;
+    }
+
+    public Builder trace(Trace level)
+    {
+      this.trace = level;
+      return this;
+    }
+
+    public Builder traceFile(String file)
+    {
+      this.traceFile = file;
+      return this;
+    }
+
+    public Builder elabClassTable(boolean on)
+    {
+      this.elabClassTable = on;
+      return this;
+    }
+
+    public Builder elabMethodTable(boolean on)
+    {
+      this.elabMethodTable = on;
+      return this;
+    }
+
+    public Options build()
+    {
+      return new Options(this);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package control;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import elaborator.ClassTable;
+import elaborator.MethodTable;
+import lexer.LexicalError;
+import lexer.Lexer;
+import lexer.MappedSource;
+import lexer.Source;
+import lexer.TokenBuffer;
+import lexer.TokenDump;
+import parser.Ast;
+import parser.LLParser;
+import parser.Parser;
+import parser.TraceSink;
+import util.Diagnostic;
+
+// Compiles sources with a fixed set of options, and returns what
+// it found instead of printing it or exiting. A compilation keeps
+// all of its state in its own lexer, parser and tree, so one
+// TigerCompiler may be used over and over, and by several threads
+// at once, in the same JVM. (It is not called Compiler, which would
+// clash with java.lang.Compiler wherever control.* is imported.)
+//
+// The only output is what the options ask to be printed: the
+// tokens as they are lexed (-lex) and the parser's trace, unless
+// it goes to a file. Each compilation prints them to "out" through
+// a TokenDump of its own, flushed before compile() returns;
+// compilations running at once on the same "out" interleave their
+// output in blocks.
+public class TigerCompiler
+{
+  // what a compilation found
+  public static class Result
+  {
+    public final String fname;
+    // the tree, or null if the source could not be lexed
+    public final Ast ast;
+    // the syntax errors, in the order they were found, then the
+    // lexical error that stopped the lexer, if any
+    public final List<Diagnostic> diagnostics;
+    // Whether the method bodies were skimmed, which the hand parser
+    // does for -elab (see Parser.skim()): the statements and return
+    // of each method in "ast" are then one Ast.BODY node, and were
+    // neither parsed nor checked, so "diagnostics" only has the
+    // errors of the declarations. "ast.parseBodies()" parses them
+    // and adds their errors to "diagnostics". For a program with no
+    // syntax errors, that gives the tree a full parse gives. For one
+    // with errors it reports errors too, but not always those of a
+    // full parse: a skimmed body ends at the "}" that balances its
+    // "{", so where a brace is missing or extra, the errors may be
+    // worded differently or found at other tokens (a body that runs
+    // into the end of the file is reported as missing its "}").
+    public final boolean skimmed;
+    // with -elab, the tables of a program with no syntax errors,
+    // and otherwise null
+    public final ClassTable classTable;
+    public final MethodTable methodTable;
+    // nanoseconds spent opening the source, lexing and parsing it,
+    // and building the tables
+    public final long openNanos;
+    public final long parseNanos;
+    public final long elabNanos;
+
+    Result(String fname, Ast ast, List<Diagnostic> diagnostics,
+        boolean skimmed, ClassTable classTable, MethodTable methodTable,
+        long openNanos, long parseNanos, long elabNanos)
+    {
+      this.fname = fname;
+      this.ast = ast;
+      this.diagnostics = diagnostics;
+      this.skimmed = skimmed;
+      this.classTable = classTable;
+      this.methodTable = methodTable;
+      this.openNanos = openNanos;
+      this.parseNanos = parseNanos;
+      this.elabNanos = elabNanos;
+    }
+
+    // whether the source has no errors (if "skimmed", none outside
+    // the method bodies)
+    public boolean ok()
+    {
+      return this.diagnostics.isEmpty();
+    }
+
+    public long totalNanos()
+    {
+      return this.openNanos + this.parseNanos + this.elabNanos;
+    }
+  }
+
+  private final Options options;
+  private final OutputStream out;
+
+  public TigerCompiler(Options options)
+  {
+    this(options, System.out);
+  }
+
+  public TigerCompiler(Options options, OutputStream out)
+  {
+    this.options = options;
+    this.out = out;
+  }
+
+  public Options options()
+  {
+    return this.options;
+  }
+
+  // Compile the file "file". An error reading it, or writing the
+  // trace, is thrown as an IOException.
+  public Result compile(Path file) throws IOException
+  {
+    long start = System.nanoTime();
+    String fname = file.toString();
+    Source source = Source.open(fname);
+    try {
+      return compile(fname, source, start);
+    } finally {
+      source.close();
+    }
+  }
+
+  // Compile the bytes "text", reported as the file "fname".
+  public Result compile(String fname, byte[] text) throws IOException
+  {
+    long start = System.nanoTime();
+    return compile(fname, new MappedSource(ByteBuffer.wrap(text)), start);
+  }
+
+  // Compile the bytes from the position to the limit of "text",
+  // which is left unchanged.
+  public Result compile(String fname, ByteBuffer text) throws IOException
+  {
+    long start = System.nanoTime();
+    return compile(fname, new MappedSource(text.slice()), start);
+  }
+
+  // Compile the characters "text", as UTF-8 bytes, which is how a
+  // file would have held them.
+  public Result compile(String fname, CharSequence text) throws IOException
+  {
+    long start = System.nanoTime();
+    byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+    return compile(fname, new MappedSource(ByteBuffer.wrap(bytes)), start);
+  }
+
+  private Result compile(String fname, Source source, long start)
+      throws IOException
+  {
+    Options options = this.options;
+    boolean traceText = options.trace != Options.Trace.OFF
+        && options.traceFile == null;
+    TokenDump dump = (options.lex || traceText) ? new TokenDump(this.out)
+        : null;
+    List<Diagnostic> syntaxErrors = null; // the parser's
+    TraceSink trace = null;
+    TokenBuffer tokens = null;
+    // the class and method tables need no method bodies
+    boolean skim = !options.llParser
+        && (options.elabClassTable || options.elabMethodTable);
+    long parseStart = System.nanoTime();
+    try {
+      tokens = Lexer.tokenize(fname, source, options,
+          options.lex ? dump : null);
+      if (options.trace != Options.Trace.OFF)
+        trace = traceText ? new TraceSink.Text(dump) : new TraceSink.AsyncFile(
+            options.traceFile);
+      Ast ast;
+      if (options.llParser) {
+        LLParser parser = new LLParser(fname, tokens, options);
+        syntaxErrors = parser.diagnostics();
+        if (trace != null)
+          parser.trace(options.trace, trace);
+        ast = parser.parse();
+      } else {
+        Parser parser = new Parser(fname, tokens, options);
+        syntaxErrors = parser.diagnostics();
+        if (skim)
+          parser.skim();
+        if (trace != null)
+          parser.trace(options.trace, trace);
+        ast = parser.parse();
+      }
+
+      long elabStart = System.nanoTime();
+      ClassTable classTable = null;
+      MethodTable methodTable = null;
+      if (syntaxErrors.isEmpty()) {
+        if (options.elabClassTable)
+          classTable = new ClassTable(ast);
+        if (options.elabMethodTable)
+          methodTable = new MethodTable(ast);
+      }
+      long end = System.nanoTime();
+      return new Result(fname, ast, syntaxErrors, skim, classTable,
+          methodTable, parseStart - start, elabStart - parseStart, end
+              - elabStart);
+    } catch (LexicalError e) {
+      List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+      if (syntaxErrors != null)
+        diagnostics.addAll(syntaxErrors);
+      diagnostics.add(e.diagnostic());
+      return new Result(fname, null, diagnostics, false, null, null,
+          parseStart - start, System.nanoTime() - parseStart, 0);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      // stop a lexer thread the parse did not read to the end, and
+      // close the trace (and its writer thread), which the parse
+      // only does if it gets to its end; closing it twice is fine
+      if (tokens != null)
+        tokens.close();
+      if (trace != null)
+        trace.close();
+      if (dump != null)
+        dump.flush();
+    }
+  }
+}
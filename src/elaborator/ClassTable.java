@@ -0,0 +1,112 @@
+package elaborator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import parser.Ast;
+
+// The classes of a program, by name, in the order they are
+// declared: the superclass, fields and method signatures of each.
+// Only declarations are read, so the table can be built from a
+// skimmed tree (see parser.Parser.skim()).
+public class ClassTable
+{
+  public static class Binding
+  {
+    public final String name;
+    public final String superName; // null if none
+    public final List<String> fields; // "type name"
+    public final List<String> methods; // "type name(type, ...)"
+
+    Binding(String name, String superName)
+    {
+      this.name = name;
+      this.superName = superName;
+      this.fields = new ArrayList<String>();
+      this.methods = new ArrayList<String>();
+    }
+  }
+
+  private LinkedHashMap<String, Binding> classes;
+
+  public ClassTable(Ast ast)
+  {
+    this.classes = new LinkedHashMap<String, Binding>();
+    for (int c = ast.firstChild(ast.root()); c != Ast.NONE; c = ast
+        .nextSibling(c)) {
+      String name = ast.tokens().lexeme(ast.token(c));
+      if (ast.kind(c) == Ast.MAIN_CLASS) {
+        Binding binding = new Binding(name, null);
+        binding.methods.add("void main(String[])");
+        this.classes.put(name, binding);
+        continue;
+      }
+      int child = ast.firstChild(c);
+      String superName = null;
+      if (child != Ast.NONE && ast.kind(child) == Ast.EXTENDS) {
+        superName = ast.tokens().lexeme(ast.token(child));
+        child = ast.nextSibling(child);
+      }
+      Binding binding = new Binding(name, superName);
+      for (; child != Ast.NONE; child = ast.nextSibling(child))
+        if (ast.kind(child) == Ast.VAR_DECL)
+          binding.fields.add(declaration(ast, child));
+        else
+          binding.methods.add(signature(ast, child));
+      // the first declaration of a class wins
+      if (!this.classes.containsKey(name))
+        this.classes.put(name, binding);
+    }
+  }
+
+  // the name of the type node "type"
+  static String typeName(Ast ast, int type)
+  {
+    if (ast.kind(type) == Ast.TYPE_CLASS)
+      return ast.tokens().lexeme(ast.token(type));
+    return Ast.kindName(ast.kind(type));
+  }
+
+  // "type name" for a VAR_DECL or FORMAL
+  static String declaration(Ast ast, int n)
+  {
+    return typeName(ast, ast.firstChild(n)) + " "
+        + ast.tokens().lexeme(ast.token(n));
+  }
+
+  // "type name(type, ...)" for a METHOD
+  static String signature(Ast ast, int method)
+  {
+    int type = ast.firstChild(method);
+    StringBuilder s = new StringBuilder();
+    s.append(typeName(ast, type)).append(' ')
+        .append(ast.tokens().lexeme(ast.token(method))).append('(');
+    String sep = "";
+    for (int c = ast.nextSibling(type); c != Ast.NONE
+        && ast.kind(c) == Ast.FORMAL; c = ast.nextSibling(c)) {
+      s.append(sep).append(typeName(ast, ast.firstChild(c)));
+      sep = ", ";
+    }
+    return s.append(')').toString();
+  }
+
+  // the class "name", or null
+  public Binding get(String name)
+  {
+    return this.classes.get(name);
+  }
+
+  public void dump()
+  {
+    for (Binding binding : this.classes.values()) {
+      System.out.println("class " + binding.name
+          + ((binding.superName == null) ? "" : " extends " + binding.superName));
+      for (String field : binding.fields)
+        System.out.println("  field " + field);
+      for (String method : binding.methods)
+        System.out.println("  method " + method);
+    }
+    return;
+  }
+}
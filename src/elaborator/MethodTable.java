@@ -0,0 +1,84 @@
+package elaborator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import parser.Ast;
+
+// The methods of a program, by "Class.method", in the order they
+// are declared: the parameters and local variables of each. Like
+// the class table, it reads only declarations, so a skimmed tree
+// will do.
+public class MethodTable
+{
+  public static class Binding
+  {
+    public final List<String> formals; // "type name"
+    public final List<String> locals; // "type name"
+
+    Binding()
+    {
+      this.formals = new ArrayList<String>();
+      this.locals = new ArrayList<String>();
+    }
+  }
+
+  private LinkedHashMap<String, Binding> methods;
+
+  public MethodTable(Ast ast)
+  {
+    this.methods = new LinkedHashMap<String, Binding>();
+    for (int c = ast.firstChild(ast.root()); c != Ast.NONE; c = ast
+        .nextSibling(c)) {
+      String className = ast.tokens().lexeme(ast.token(c));
+      if (ast.kind(c) == Ast.MAIN_CLASS) {
+        Binding binding = new Binding();
+        binding.formals.add(ClassTable.declaration(ast, ast.firstChild(c)));
+        put(className + ".main", binding);
+        continue;
+      }
+      for (int m = ast.firstChild(c); m != Ast.NONE; m = ast.nextSibling(m)) {
+        if (ast.kind(m) != Ast.METHOD)
+          continue;
+        Binding binding = new Binding();
+        for (int d = ast.nextSibling(ast.firstChild(m)); d != Ast.NONE; d = ast
+            .nextSibling(d))
+          if (ast.kind(d) == Ast.FORMAL)
+            binding.formals.add(ClassTable.declaration(ast, d));
+          else if (ast.kind(d) == Ast.VAR_DECL)
+            binding.locals.add(ClassTable.declaration(ast, d));
+          else
+            break;
+        put(className + "." + ast.tokens().lexeme(ast.token(m)), binding);
+      }
+    }
+  }
+
+  // the first declaration of a method wins
+  private void put(String name, Binding binding)
+  {
+    if (!this.methods.containsKey(name))
+      this.methods.put(name, binding);
+    return;
+  }
+
+  // the method "Class.method", or null
+  public Binding get(String name)
+  {
+    return this.methods.get(name);
+  }
+
+  public void dump()
+  {
+    for (String name : this.methods.keySet()) {
+      Binding binding = this.methods.get(name);
+      System.out.println("method " + name);
+      for (String formal : binding.formals)
+        System.out.println("  formal " + formal);
+      for (String local : binding.locals)
+        System.out.println("  local " + local);
+    }
+    return;
+  }
+}
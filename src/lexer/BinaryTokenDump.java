@@ -0,0 +1,234 @@
+package lexer;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import lexer.Token.Kind;
+
+// A compact binary form of a token stream, to compare the lexer
+// output on huge inputs with "cmp" rather than diffing text.
+//
+// The dump is the magic "TKD" and a version byte, then one record
+// per token, up to and including TOKEN_EOF:
+//   kind ordinal      1 byte
+//   line              zigzag varint, minus the previous line
+//   column + 1        varint (0 for a token with no column)
+//   start             zigzag varint, minus the previous start
+//   length            varint
+// A TOKEN_ID is followed by its symbol's number as a varint (0
+// for the token of an unexpected character): symbols are numbered
+// from 1 in the order they first appear in the dump, and the first
+// time a number appears it is followed by the length and the
+// characters of the name, one byte each. A TOKEN_NUM is followed by
+// its value as a zigzag varint, and a TOKEN_REAL by the 8 bytes of
+// its double, lowest first.
+//
+// "main" decodes a dump back into the -testlexer text.
+public class BinaryTokenDump
+{
+  private static final int VERSION = 1;
+  private static final Kind[] KINDS = Kind.values();
+
+  private OutputStream out;
+  private int line; // of the previous token
+  private int start;
+  // symbol id -> its number in the dump plus 1, or 0
+  private int[] numbers;
+  private int names; // symbols whose name has been written
+
+  public BinaryTokenDump(OutputStream out) throws IOException
+  {
+    this.out = new BufferedOutputStream(out, 64 * 1024);
+    this.out.write('T');
+    this.out.write('K');
+    this.out.write('D');
+    this.out.write(VERSION);
+    this.line = 0;
+    this.start = 0;
+    this.numbers = new int[256];
+    this.names = 0;
+  }
+
+  private void varint(long v) throws IOException
+  {
+    while ((v & ~0x7fL) != 0) {
+      this.out.write((int) (v & 0x7f) | 0x80);
+      v >>>= 7;
+    }
+    this.out.write((int) v);
+    return;
+  }
+
+  private void zigzag(long v) throws IOException
+  {
+    varint((v << 1) ^ (v >> 63));
+    return;
+  }
+
+  // write token "i" of "tokens"
+  public void write(TokenBuffer tokens, int i) throws IOException
+  {
+    Kind kind = tokens.kind(i);
+    this.out.write(kind.ordinal());
+    zigzag(tokens.lineNum(i) - this.line);
+    varint(tokens.columnNum(i) + 1);
+    zigzag(tokens.start(i) - this.start);
+    varint(tokens.length(i));
+    this.line = tokens.lineNum(i);
+    this.start = tokens.start(i);
+
+    switch (kind) {
+    case TOKEN_ID: {
+      Symbol sym = tokens.symbol(i);
+      if (sym == null) {
+        // the token of an unexpected character
+        varint(0);
+        break;
+      }
+      if (sym.id >= this.numbers.length)
+        this.numbers = java.util.Arrays.copyOf(this.numbers, Math.max(
+            2 * this.numbers.length, sym.id + 1));
+      if (this.numbers[sym.id] != 0) {
+        varint(this.numbers[sym.id]);
+        break;
+      }
+      this.numbers[sym.id] = ++this.names;
+      varint(this.names);
+      varint(sym.name.length());
+      for (int k = 0; k < sym.name.length(); k++)
+        this.out.write(sym.name.charAt(k));
+      break;
+    }
+    case TOKEN_NUM:
+      zigzag(tokens.integerValue(i));
+      break;
+    case TOKEN_REAL: {
+      long bits = tokens.value(i);
+      for (int k = 0; k < 8; k++)
+        this.out.write((int) (bits >>> (8 * k)));
+      break;
+    }
+    default:
+      break;
+    }
+    return;
+  }
+
+  public void flush() throws IOException
+  {
+    this.out.flush();
+    return;
+  }
+
+  // /////////////////////////////////////////////////////
+  // decoding
+
+  private static long readVarint(ByteBuffer in)
+  {
+    long v = 0;
+    for (int shift = 0;; shift += 7) {
+      int b = in.get() & 0xff;
+      v |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0)
+        return v;
+    }
+  }
+
+  private static long readZigzag(ByteBuffer in)
+  {
+    long v = readVarint(in);
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  // Read the dump in "in" (a mapped file, say) back into a complete
+  // token buffer, with its own symbol table.
+  public static TokenBuffer read(ByteBuffer in) throws IOException
+  {
+    try {
+      return decode(in.duplicate());
+    } catch (BufferUnderflowException e) {
+      throw new EOFException("token dump ends before TOKEN_EOF");
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("corrupt token dump");
+    }
+  }
+
+  private static TokenBuffer decode(ByteBuffer in) throws IOException
+  {
+    if (in.get() != 'T' || in.get() != 'K' || in.get() != 'D')
+      throw new IOException("not a token dump");
+    int version = in.get() & 0xff;
+    if (version != VERSION)
+      throw new IOException("token dump version " + version
+          + ", expected " + VERSION);
+
+    SymbolTable symbols = new SymbolTable();
+    TokenBuffer tokens = new TokenBuffer(symbols);
+    int line = 0, start = 0;
+    char[] name = new char[64];
+    Kind kind;
+    do {
+      kind = KINDS[in.get() & 0xff];
+      line += (int) readZigzag(in);
+      int column = (int) readVarint(in) - 1;
+      start += (int) readZigzag(in);
+      int length = (int) readVarint(in);
+      long value = 0;
+      Symbol sym = null;
+      switch (kind) {
+      case TOKEN_ID: {
+        int id = (int) readVarint(in) - 1;
+        if (id == -1)
+          break;
+        if (id == symbols.size()) {
+          int n = (int) readVarint(in);
+          if (n > name.length)
+            name = new char[n];
+          for (int k = 0; k < n; k++)
+            name[k] = (char) (in.get() & 0xff);
+          symbols.intern(name, 0, n);
+        }
+        sym = symbols.get(id);
+        break;
+      }
+      case TOKEN_NUM:
+        value = readZigzag(in);
+        break;
+      case TOKEN_REAL:
+        for (int k = 0; k < 8; k++)
+          value |= (long) (in.get() & 0xff) << (8 * k);
+        break;
+      default:
+        break;
+      }
+      tokens.add(kind, line, column, start, length, value, sym);
+    } while (kind != Kind.TOKEN_EOF);
+    return tokens;
+  }
+
+  // Print a dump the way -testlexer prints its tokens.
+  public static void main(String[] args)
+  {
+    if (args.length != 1) {
+      System.out.println("Usage: java lexer.BinaryTokenDump <dump file>");
+      System.exit(1);
+    }
+    try {
+      TokenBuffer tokens = read(new MappedSource(new File(args[0])).buffer());
+      TokenDump dump = TokenDump.stdout();
+      System.out.println("Testing the lexer. All tokens:");
+      for (int i = 0; i < tokens.size() - 1; i++)
+        dump.write(tokens, i);
+      dump.flush();
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+    return;
+  }
+}
@@ -0,0 +1,206 @@
+package lexer;
+
+import java.io.IOException;
+
+import lexer.Token.Kind;
+
+// A lexer driven by tables instead of hand-written loops.
+// Every input byte is first mapped to a character class: ASCII
+// through a 128-entry array, everything else through a slow
+// path. Tokens are then recognized by a DFA over those classes,
+// with maximal munch: the DFA runs until it has no transition
+// on the next character (which it only peeks at), and the last
+// state it reached decides the token kind.
+//
+// It produces exactly the same tokens (positions included) as
+// the hand-written Lexer, and is picked by "-lexer dfa".
+public class DfaLexer extends Lexer
+{
+  // character classes
+  private static final int C_OTHER = 0;
+  private static final int C_BLANK = 1;
+  private static final int C_TAB = 2;
+  private static final int C_NL = 3;
+  private static final int C_SLASH = 4;
+  private static final int C_LETTER = 5; // and '_'
+  private static final int C_DIGIT = 6;
+  private static final int C_AMP = 7;
+  private static final int C_BAR = 8;
+  private static final int C_EQ = 9;
+  private static final int C_DOT = 10;
+  private static final int C_EOF = 11;
+  // each of the characters below is a token on its own, and
+  // has a class of its own: C_SINGLE + i for SINGLE[i]
+  private static final int C_SINGLE = 12;
+  private static final String SINGLE = "+,{[(<!}])-;*>";
+  private static final Kind[] SINGLE_KINDS = { Kind.TOKEN_ADD,
+      Kind.TOKEN_COMMER, Kind.TOKEN_LBRACE, Kind.TOKEN_LBRACK,
+      Kind.TOKEN_LPAREN, Kind.TOKEN_LT, Kind.TOKEN_NOT, Kind.TOKEN_RBRACE,
+      Kind.TOKEN_RBRACK, Kind.TOKEN_RPAREN, Kind.TOKEN_SUB,
+      Kind.TOKEN_SEMI, Kind.TOKEN_TIMES, Kind.TOKEN_GT, };
+  private static final int CLASSES = C_SINGLE + SINGLE.length();
+
+  private static final byte[] ascii = new byte[128];
+
+  // DFA states; every state but START accepts
+  private static final int DEAD = -1;
+  private static final int START = 0;
+  private static final int S_ID = 1;
+  private static final int S_NUM = 2;
+  private static final int STATES = 32;
+
+  private static final byte[] next = new byte[STATES * CLASSES];
+  private static final Kind[] accept = new Kind[STATES];
+  // whether the token's column is that of its last character
+  // (for "&&", "||" and "=="), or of its first one
+  private static final boolean[] endColumn = new boolean[STATES];
+  // whether the state has any transition out of it
+  private static final boolean[] more = new boolean[STATES];
+  private static int states = 0;
+
+  private static int state(Kind kind, boolean end)
+  {
+    accept[states] = kind;
+    endColumn[states] = end;
+    return states++;
+  }
+
+  private static void edge(int from, int cls, int to)
+  {
+    next[from * CLASSES + cls] = (byte) to;
+    more[from] = true;
+    return;
+  }
+
+  static {
+    for (int c = 0; c < 128; c++) {
+      if (Character.isLetter(c) || '_' == c)
+        ascii[c] = C_LETTER;
+      else if (Character.isDigit(c))
+        ascii[c] = C_DIGIT;
+      else
+        ascii[c] = C_OTHER;
+    }
+    ascii[' '] = C_BLANK;
+    ascii['\t'] = C_TAB;
+    ascii['\n'] = C_NL;
+    ascii['/'] = C_SLASH;
+    ascii['&'] = C_AMP;
+    ascii['|'] = C_BAR;
+    ascii['='] = C_EQ;
+    ascii['.'] = C_DOT;
+    for (int i = 0; i < SINGLE.length(); i++)
+      ascii[SINGLE.charAt(i)] = (byte) (C_SINGLE + i);
+
+    java.util.Arrays.fill(next, (byte) DEAD);
+    state(null, false); // START
+    state(Kind.TOKEN_ID, false); // S_ID
+    state(Kind.TOKEN_NUM, false); // S_NUM
+    edge(START, C_LETTER, S_ID);
+    edge(S_ID, C_LETTER, S_ID);
+    edge(S_ID, C_DIGIT, S_ID);
+    edge(START, C_DIGIT, S_NUM);
+    edge(S_NUM, C_DIGIT, S_NUM);
+
+    // these have always been lexed like this: a single "|" is
+    // TOKEN_OR and "||" is TOKEN_BITOR, "=" is TOKEN_EQ and "=="
+    // is TOKEN_ASSIGN.
+    int amp = state(Kind.TOKEN_BITAND, false);
+    edge(START, C_AMP, amp);
+    edge(amp, C_AMP, state(Kind.TOKEN_AND, true));
+    int bar = state(Kind.TOKEN_OR, false);
+    edge(START, C_BAR, bar);
+    edge(bar, C_BAR, state(Kind.TOKEN_BITOR, true));
+    int eq = state(Kind.TOKEN_EQ, false);
+    edge(START, C_EQ, eq);
+    edge(eq, C_EQ, state(Kind.TOKEN_ASSIGN, true));
+
+    edge(START, C_DOT, state(Kind.TOKEN_DOT, false));
+    for (int i = 0; i < SINGLE.length(); i++)
+      edge(START, C_SINGLE + i, state(SINGLE_KINDS[i], false));
+  }
+
+  // the class of "c", a byte or -1
+  private static int classOf(int c)
+  {
+    if ((c & ~0x7f) == 0)
+      return ascii[c];
+    return slowClassOf(c);
+  }
+
+  private static int slowClassOf(int c)
+  {
+    if (c == -1)
+      return C_EOF;
+    if (Character.isLetter(c))
+      return C_LETTER;
+    if (Character.isDigit(c))
+      return C_DIGIT;
+    return C_OTHER;
+  }
+
+  public DfaLexer(String fname, Source source)
+  {
+    super(fname, source);
+  }
+
+  @Override
+  Kind nextTokenInternal() throws IOException
+  {
+    int c = skip();
+    this.tokenStart = this.source.position() - 1;
+    int cls = classOf(c);
+    if (cls == C_EOF)
+      return token(Kind.TOKEN_EOF, lineNum, null, columnNum);
+    int state = next[START * CLASSES + cls];
+    if (state == DEAD)
+      // an unexpected character: see Lexer
+      return token(Kind.TOKEN_ID, c, null, NO_COLUMN);
+
+    int column = columnNum;
+    int length = 0;
+    long v = 0;
+    if (state == S_ID || state == S_NUM)
+      length = append(length, c);
+    if (state == S_NUM)
+      v = appendDigit(v, c);
+    while (more[state]) {
+      c = this.source.peek(0);
+      cls = classOf(c);
+      int to = next[state * CLASSES + cls];
+      if (to == DEAD) {
+        // "digits.digits" is a real; "digits." with no digit after it
+        // is a NUM, then a DOT
+        if (state == S_NUM && cls == C_DOT
+            && Character.isDigit(this.source.peek(1)))
+          return fraction(length, v, column);
+        break;
+      }
+      this.source.read();
+      columnNum++;
+      state = to;
+      if (state == S_ID || state == S_NUM)
+        length = append(length, c);
+      if (state == S_NUM)
+        v = appendDigit(v, c);
+    }
+
+    if (endColumn[state])
+      column = columnNum;
+    switch (state) {
+    case S_ID: {
+      int k = Keywords.find(this.word, 0, length);
+      if (k != -1)
+        return token(Keywords.kind(k), lineNum, Keywords.word(k), column);
+      Symbol sym = this.symbols.intern(this.word, 0, length);
+      token(Kind.TOKEN_ID, lineNum, sym.name, column);
+      this.tokenSymbol = sym;
+      return Kind.TOKEN_ID;
+    }
+    case S_NUM:
+      return integer(v, column);
+    default:
+      return token(accept[state], lineNum, null, column);
+    }
+  }
+}
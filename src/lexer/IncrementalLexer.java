@@ -0,0 +1,195 @@
+package lexer;
+
+import lexer.Token.Kind;
+
+// Re-lexes a source after an edit, reusing the token stream
+// of the text before the edit.
+//
+// Between two tokens the lexer's whole state is its offset, line
+// and column; comments are skipped inside a single call, so
+// that state is never "inside a comment". After a one-character
+// token without lookahead (";", "{", "+", ...; not ".", which
+// an edit after it can turn into part of a real number) the state is
+// known exactly from the token itself: the offset is just past
+// it, and the line and column are the token's own. Such tokens
+// are the restart points. Lexing restarts after the last one
+// before the edit, and stops as soon as it produces a restart
+// token at the same place as an old one, past the edit, in the
+// same column: from there on, the text and the lexer state are
+// the same as before, so the old tokens are reused with their
+// lines and offsets shifted.
+public class IncrementalLexer
+{
+  // The tokens after an edit, and which of them are new: tokens
+  // ["first", "newEnd") of "tokens" replace tokens ["first",
+  // "oldEnd") of the old stream. The tokens before are the old
+  // ones; those after are the old ones, shifted by "newEnd -
+  // oldEnd" places. "sameKinds" tells whether the new tokens are
+  // as many as the old ones, and of the same kinds, one by one.
+  public static class Edit
+  {
+    public final TokenBuffer tokens;
+    public final int first;
+    public final int oldEnd;
+    public final int newEnd;
+    public final boolean sameKinds;
+
+    Edit(TokenBuffer tokens, int first, int oldEnd, int newEnd,
+        boolean sameKinds)
+    {
+      this.tokens = tokens;
+      this.first = first;
+      this.oldEnd = oldEnd;
+      this.newEnd = newEnd;
+      this.sameKinds = sameKinds;
+    }
+  }
+
+  private static boolean isRestart(TokenBuffer tokens, int i)
+  {
+    switch (tokens.kind(i)) {
+    case TOKEN_ADD:
+    case TOKEN_COMMER:
+    case TOKEN_GT:
+    case TOKEN_LBRACE:
+    case TOKEN_LBRACK:
+    case TOKEN_LPAREN:
+    case TOKEN_LT:
+    case TOKEN_NOT:
+    case TOKEN_RBRACE:
+    case TOKEN_RBRACK:
+    case TOKEN_RPAREN:
+    case TOKEN_SEMI:
+    case TOKEN_SUB:
+    case TOKEN_TIMES:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  // the index of the first token starting at or after "start"
+  private static int lowerBound(TokenBuffer tokens, int start)
+  {
+    int lo = 0, hi = tokens.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (tokens.start(mid) < start)
+        lo = mid + 1;
+      else
+        hi = mid;
+    }
+    return lo;
+  }
+
+  // the index of the token starting at "start", or -1.
+  private static int find(TokenBuffer tokens, int start)
+  {
+    int i = lowerBound(tokens, start);
+    if (i < tokens.size() && tokens.start(i) == start)
+      return i;
+    return -1;
+  }
+
+  // Return the tokens of "text", which is the text of "old" with
+  // the "oldLength" bytes at "offset" replaced by "newLength" bytes.
+  // "old" must be the complete token stream of the text before the
+  // edit; it is left unchanged, and the result shares its symbols.
+  // Only the tokens around the edit are lexed again, but the result
+  // is a new buffer that all the others are copied into, so the
+  // cost is O(n) in the number of tokens; use update() to edit a
+  // stream in place.
+  public static TokenBuffer relex(String fname, TokenBuffer old,
+      MappedSource text, int offset, int oldLength, int newLength)
+  {
+    return edit(fname, old, text, offset, oldLength, newLength).tokens;
+  }
+
+  // the same, with the range of tokens that changed
+  public static Edit edit(String fname, TokenBuffer old,
+      MappedSource text, int offset, int oldLength, int newLength)
+  {
+    return edit(fname, old, text, offset, oldLength, newLength, false);
+  }
+
+  // The same, but "tokens" itself becomes the tokens of "text": the
+  // new tokens are spliced into it, instead of into a copy of the
+  // old ones. Lexing costs as much as the change, but the tokens
+  // after it still have their offsets (and lines, if those moved)
+  // shifted, and are moved if their number changes, which is one
+  // pass over the arrays from the edit to the end of the stream.
+  public static Edit update(String fname, TokenBuffer tokens,
+      MappedSource text, int offset, int oldLength, int newLength)
+  {
+    return edit(fname, tokens, text, offset, oldLength, newLength, true);
+  }
+
+  // Are tokens ["first", "oldEnd") of "old" of the same kinds as
+  // the tokens of "lexed" from "from" on, up to "to"?
+  private static boolean sameKinds(TokenBuffer old, int first, int oldEnd,
+      TokenBuffer lexed, int from, int to)
+  {
+    if (oldEnd - first != to - from)
+      return false;
+    for (int i = 0; i < to - from; i++)
+      if (old.kind(first + i) != lexed.kind(from + i))
+        return false;
+    return true;
+  }
+
+  private static Edit edit(String fname, TokenBuffer old,
+      MappedSource text, int offset, int oldLength, int newLength,
+      boolean inPlace)
+  {
+    if (old.size() == 0 || old.kind(old.size() - 1) != Kind.TOKEN_EOF)
+      old.fillAll();
+    int delta = newLength - oldLength;
+
+    // the last restart token before the edit
+    int restart = lowerBound(old, offset) - 1;
+    while (restart >= 0 && !isRestart(old, restart))
+      restart--;
+    int first = restart + 1;
+
+    // in place, "result" only gets the new tokens, from "first" on
+    Lexer lexer = Lexer.create(fname, text, old.symbolTable());
+    TokenBuffer result = new TokenBuffer(lexer);
+    int base = inPlace ? first : 0;
+    if (restart >= 0) {
+      if (!inPlace)
+        result.append(old, 0, first, 0, 0);
+      lexer.restart(old.start(restart) + 1, old.lineNum(restart),
+          old.columnNum(restart));
+    }
+
+    while (true) {
+      Kind kind = lexer.nextToken(result);
+      if (kind == Kind.TOKEN_EOF) {
+        int oldEnd = old.size(), newEnd = base + result.size();
+        boolean same = sameKinds(old, first, oldEnd, result, first - base,
+            result.size());
+        if (!inPlace)
+          return new Edit(result, first, oldEnd, newEnd, same);
+        old.splice(first, oldEnd, result, result.size(), 0, 0);
+        return new Edit(old, first, oldEnd, newEnd, same);
+      }
+      int last = result.size() - 1;
+      int start = result.start(last);
+      if (start < offset + newLength || !isRestart(result, last))
+        continue;
+      int i = find(old, start - delta);
+      if (i != -1 && old.kind(i) == kind
+          && old.columnNum(i) == result.columnNum(last)) {
+        // re-synchronized: the rest is the old stream, shifted
+        int lineDelta = result.lineNum(last) - old.lineNum(i);
+        boolean same = sameKinds(old, first, i, result, first - base, last);
+        if (!inPlace) {
+          result.append(old, i + 1, old.size(), lineDelta, delta);
+          return new Edit(result, first, i, last, same);
+        }
+        old.splice(first, i + 1, result, last + 1, lineDelta, delta);
+        return new Edit(old, first, i, base + last, same);
+      }
+    }
+  }
+}
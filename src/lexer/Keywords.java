@@ -0,0 +1,99 @@
+package lexer;
+
+import lexer.Token.Kind;
+
+// The MiniJava keywords, looked up with a perfect hash on
+// the first and last character and the length of a word.
+// A lookup works directly on a span of characters, so no
+// String has to be built for a word that turns out to be
+// a keyword.
+class Keywords
+{
+  private static final String[] WORDS = { "class", "boolean", "else",
+      "extends", "false", "if", "int", "length", "main", "new", "out",
+      "println", "public", "return", "static", "String", "System", "this",
+      "true", "void", "while", "delete", "protected", "private", "real", };
+
+  private static final Kind[] KINDS = { Kind.TOKEN_CLASS,
+      Kind.TOKEN_BOOLEAN, Kind.TOKEN_ELSE, Kind.TOKEN_EXTENDS,
+      Kind.TOKEN_FALSE, Kind.TOKEN_IF, Kind.TOKEN_INT, Kind.TOKEN_LENGTH,
+      Kind.TOKEN_MAIN, Kind.TOKEN_NEW, Kind.TOKEN_OUT, Kind.TOKEN_PRINTLN,
+      Kind.TOKEN_PUBLIC, Kind.TOKEN_RETURN, Kind.TOKEN_STATIC,
+      Kind.TOKEN_STRING, Kind.TOKEN_SYSTEM, Kind.TOKEN_THIS,
+      Kind.TOKEN_TRUE, Kind.TOKEN_VOID, Kind.TOKEN_WHILE, Kind.TOKEN_DELETE,
+      Kind.TOKEN_PROTECTED, Kind.TOKEN_PRIVATE,
+      // "real" has always been lexed like this
+      Kind.TOKEN_SYSTEM, };
+
+  private static final int SIZE = 64; // a power of 2
+  private static final int MAX_LENGTH = 9; // "protected"
+
+  // slot -> index into WORDS and KINDS, or -1
+  private static final int[] table = new int[SIZE];
+  private static int multiplier;
+
+  // Search for a multiplier that sends every keyword to its
+  // own slot. This runs once, when the class is loaded.
+  static {
+    for (multiplier = 1;; multiplier++) {
+      java.util.Arrays.fill(table, -1);
+      boolean perfect = true;
+      for (int i = 0; i < WORDS.length && perfect; i++) {
+        char[] w = WORDS[i].toCharArray();
+        int h = hash(w, 0, w.length);
+        if (table[h] != -1)
+          perfect = false;
+        else
+          table[h] = i;
+      }
+      if (perfect)
+        break;
+    }
+  }
+
+  private static int hash(char[] s, int offset, int length)
+  {
+    int h = (s[offset] * multiplier + s[offset + length - 1]) * 31 + length;
+    return (h ^ (h >>> 7)) & (SIZE - 1);
+  }
+
+  // Return the keyword number of the word s[offset, offset+length),
+  // or -1 if the word is not a keyword.
+  static int find(char[] s, int offset, int length)
+  {
+    if (length > MAX_LENGTH || length < 2)
+      return -1;
+    int k = table[hash(s, offset, length)];
+    if (k == -1)
+      return -1;
+    String w = WORDS[k];
+    if (w.length() != length)
+      return -1;
+    for (int i = 0; i < length; i++)
+      if (w.charAt(i) != s[offset + i])
+        return -1;
+    return k;
+  }
+
+  static Kind kind(int k)
+  {
+    return KINDS[k];
+  }
+
+  // the keyword itself, shared by all of its tokens
+  static String word(int k)
+  {
+    return WORDS[k];
+  }
+
+  // The keyword of a token of kind "kind" that is "length"
+  // characters long, or null if there is none. (The length
+  // tells "real" from "System".)
+  static String word(Kind kind, int length)
+  {
+    for (int k = 0; k < WORDS.length; k++)
+      if (KINDS[k] == kind && WORDS[k].length() == length)
+        return WORDS[k];
+    return null;
+  }
+}
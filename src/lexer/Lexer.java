@@ -1,192 +1,373 @@
 package lexer;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import control.Options;
 
 import lexer.Token.Kind;
 
 public class Lexer
 {
-  public static int lineNum = 1;
-  public static int columnNum = 0;
+  // all lexing state lives in the instance, so that several
+  // lexers can run at the same time.
+  int lineNum = 1;
+  int columnNum = 0;
   
   String fname; // the input file name to be compiled
-  InputStream fstream; // input stream for the above file
+  Source source; // characters of the above file
+  MappedSource mapped; // the same source, if it is mapped
+
+  // the token most recently scanned by "nextTokenInternal()"
+  static final int NO_COLUMN = -1;
+  int tokenLine;
+  int tokenStart; // offset of the first character
+  int tokenColumn;
+  String tokenLexeme; // for keywords and identifiers
+  long tokenValue; // for number literals, see Token.literal()
+  Symbol tokenSymbol; // for TOKEN_ID only
+
+  // all identifiers seen by this lexer
+  SymbolTable symbols = new SymbolTable();
+
+  // characters of the identifier or keyword being scanned
+  char[] word = new char[64];
+
+  // where each token is printed as it is scanned (-lex), or null
+  TokenDump echo = null;
 
   public Lexer(String fname, InputStream fstream)
+  {
+    this(fname, new StreamSource(fstream));
+  }
+
+  public Lexer(String fname, Source source)
   {
     this.fname = fname;
-    this.fstream = fstream;
+    this.source = source;
+    if (source instanceof MappedSource)
+      this.mapped = (MappedSource) source;
   }
 
-  // When called, return the next token (refer to the code "Token.java")
-  // from the input stream.
-  // Return TOKEN_EOF when reaching the end of the input stream.
-  private Token nextTokenInternal() throws Exception
+  // a lexer that adds its identifiers to an existing table
+  Lexer(String fname, Source source, SymbolTable symbols)
+  {
+    this(fname, source);
+    this.symbols = symbols;
+  }
+
+  // Continue lexing at offset "pos" of a mapped source, in the
+  // state the lexer had right after returning a one-character
+  // token at "pos - 1" on the given line and column.
+  void restart(int pos, int line, int column)
+  {
+    this.mapped.seek(pos);
+    this.lineNum = line;
+    this.columnNum = column;
+    return;
+  }
+
+  // The tokens of "source", lexed as "options" say: from the
+  // token cache for mapped files when "-tokencache" is given (see
+  // TokenCache), and otherwise from "lex()". If "echo" is not
+  // null, the tokens are printed to it as they are lexed (-lex),
+  // which they can only be by a lexer on this thread.
+  public static TokenBuffer tokenize(String fname, Source source,
+      Options options, TokenDump echo)
+  {
+    String cache = options.tokenCache;
+    if (cache != null && source instanceof MappedSource && echo == null)
+      return new TokenCache(new java.io.File(cache), options.tokenCacheBytes)
+          .tokens(fname, (MappedSource) source, options);
+    return lex(fname, source, options, echo);
+  }
+
+  // the same, with the default options and no echo
+  public static TokenBuffer tokenize(String fname, Source source)
+  {
+    return tokenize(fname, source, Options.DEFAULT, null);
+  }
+
+  // Lex "source": big mapped files are lexed up front in parallel
+  // (see ParallelLexer), everything else is lexed on demand as the
+  // tokens are read, or ahead of the reader on another thread with
+  // "-pipeline" (see TokenPipe).
+  static TokenBuffer lex(String fname, Source source, Options options,
+      TokenDump echo)
+  {
+    int threshold = options.parallelLexThreshold;
+    if (source instanceof MappedSource && threshold >= 0
+        && ((MappedSource) source).length() >= threshold && echo == null)
+      return ParallelLexer.lex(fname, (MappedSource) source, options);
+    if (options.pipelineLex && echo == null)
+      return TokenPipe.start(create(fname, source, options));
+    Lexer lexer = create(fname, source, options);
+    lexer.echo = echo;
+    return new TokenBuffer(lexer);
+  }
+
+  // a lexer of the kind selected by "-lexer"
+  public static Lexer create(String fname, Source source, Options options)
+  {
+    if (options.dfaLexer)
+      return new DfaLexer(fname, source);
+    return new Lexer(fname, source);
+  }
+
+  static Lexer create(String fname, Source source, SymbolTable symbols)
+  {
+    return new Lexer(fname, source, symbols);
+  }
+
+  public SymbolTable symbols()
+  {
+    return this.symbols;
+  }
+
+  // Record the token just scanned in the "token*" fields,
+  // and return its kind.
+  Kind token(Kind kind, int line, String lexeme, int column)
+  {
+    this.tokenLine = line;
+    this.tokenLexeme = lexeme;
+    this.tokenSymbol = null;
+    this.tokenColumn = column;
+    return kind;
+  }
+
+  // /////////////////////////////////////////////////////
+  // Number literals are decoded as they are scanned: the lexer
+  // keeps the value of the digits so far, and never builds a
+  // String for them. Their digits also go to "word", for the
+  // rare real literal that needs an exact conversion.
+
+  // v * 10 + the digit "c", or -1 if v is -1 or the result does
+  // not fit in a long.
+  static long appendDigit(long v, int c)
+  {
+    int d = c - '0';
+    if (v < 0 || v > (Long.MAX_VALUE - d) / 10)
+      return -1;
+    return v * 10 + d;
+  }
+
+  // add "c" to "word", which holds "length" characters
+  int append(int length, int c)
+  {
+    if (length == this.word.length)
+      this.word = java.util.Arrays.copyOf(this.word, 2 * length);
+    this.word[length] = (char) c;
+    return length + 1;
+  }
+
+  // an integer literal of value "v" (-1 if it was too large)
+  Kind integer(long v, int column) throws IOException
+  {
+    if (v < 0)
+      throw new LexicalError(this.fname, lineNum,
+          "integer literal too large");
+    this.tokenValue = v;
+    return token(Kind.TOKEN_NUM, lineNum, null, column);
+  }
+
+  private static final double[] POWERS_OF_10 = { 1e0, 1e1, 1e2, 1e3, 1e4,
+      1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+      1e17, 1e18, 1e19, 1e20, 1e21, 1e22, };
+
+  // The rest of a real literal: "word" holds the "length" digits
+  // before the ".", whose value is "v", and the source is at the
+  // ".", which is followed by a digit.
+  Kind fraction(int length, long v, int column) throws IOException
   {
-	  
-    int c = this.fstream.read();
+    int scale = 0;
+    length = append(length, this.source.read());
     columnNum++;
-    /*
-    if (-1 == c)
-      // The value for "lineNum" is now "null",
-      // you should modify this to an appropriate
-      // line number for the "EOF" token.
-      return new Token(Kind.TOKEN_EOF, lineNum, columnNum);
-*/
-    // skip all kinds of "blanks"
-    while (' ' == c || '\t' == c || '\n' == c) {
-       if('\n' == c )
-      	  {
-    	   lineNum += 1; 
-    	   columnNum = 0;
-      	  }
-       // deal with '\t'
-       if('\t' == c)
-    	   columnNum += 3;
-       columnNum++;
-       c = this.fstream.read();
+    do {
+      int c = this.source.read();
+      v = appendDigit(v, c);
+      length = append(length, c);
+      scale++;
+      columnNum++;
+    } while (Character.isDigit(this.source.peek(0)));
 
-    }
-    
-    // deal with "//"
-    do
-    {
-	    if('/' == c)
-	    {
-
-	    	c = this.fstream.read();
-	    	if('/' == c)
-	    	{
-	    		do
-	    		{
-	    			c = this.fstream.read();
-	    		}while('\n' != c);
-	    		lineNum ++; 
-	    	    c = this.fstream.read();	
-	    	}
-	    	else if('*' == c)
-	    	{
-	    		do 
-	    		{	
-	    			c = this.fstream.read();
-	    			if('*' == c)
-    				{
-    					c = this.fstream.read();
-    				}
-	    			if('\n' == c)
-	    				{
-	    					lineNum++; 
-	    					c = this.fstream.read();
-	    				}
-//	    			System.out.println((char)c);
-	    		}while('/' != c);
-	    	    c = this.fstream.read();	
-	    	}
-	    }
-
-	    // skip all kinds of "blanks"
-	    while (' ' == c || '\t' == c || '\n' == c) {
-	    	if('\n' == c)
-	    		lineNum++;
-	    	if('\t' == c)
-	    	   columnNum += 3;
-	       columnNum++;
-	       c = this.fstream.read();
-	    }
-    }while('/' == c);
-    		
-    // skip all kinds of "blanks"
+    double d;
+    // both v and 10^scale are exact doubles here, so dividing
+    // them rounds only once, which is correct rounding
+    if (v >= 0 && v <= (1L << 53) && scale < POWERS_OF_10.length)
+      d = v / POWERS_OF_10[scale];
+    else
+      d = new java.math.BigDecimal(this.word, 0, length).doubleValue();
+    this.tokenValue = Double.doubleToRawLongBits(d);
+    return token(Kind.TOKEN_REAL, lineNum, null, column);
+  }
+
+  // Skip blanks starting at "c", and return the first non-blank
+  // character. Only newlines skipped right after a token (rather
+  // than after a comment) reset the column. A tab counts as four
+  // columns.
+  int blanks(int c, boolean resetColumn) throws IOException
+  {
+    int n = 0;
     while (' ' == c || '\t' == c || '\n' == c) {
-       if('\n' == c )
-      	  {
-    	   lineNum += 1; 
-    	   columnNum = 0;
-      	  }
-       // deal with '\t'
-       if('\t' == c)
-    	   columnNum += 3;
-       columnNum++;
-       c = this.fstream.read();
+      // most runs are a few bytes long; long ones (indentation,
+      // blank lines) are worth scanning a word at a time
+      if (++n == 8 && this.mapped != null)
+        return longBlanks(resetColumn);
+      if ('\n' == c) {
+        lineNum++;
+        if (resetColumn)
+          columnNum = 0;
+      } else if ('\t' == c)
+        columnNum += 3;
+      columnNum++;
+      c = this.source.read();
     }
-    
+    return c;
+  }
+
+  // "blanks()" for the rest of a run in a mapped source, starting
+  // at the blank just read.
+  private int longBlanks(boolean resetColumn)
+  {
+    MappedSource m = this.mapped;
+    int from = m.position() - 1;
+    int to = m.skipBlanks(from);
+    int last = m.lastIndexOf(from, to, '\n');
+    if (last == -1 || !resetColumn)
+      columnNum += (to - from) + 3 * m.count(from, to, '\t');
+    else
+      columnNum = (to - last) + 3 * m.count(last + 1, to, '\t');
+    if (last != -1)
+      lineNum += m.count(from, last + 1, '\n');
+    m.seek(to);
+    return m.read();
+  }
+
+  // Skip blanks and comments, and return the first character of
+  // the next token, with "columnNum" at its column.
+  //
+  // Comments are skipped exactly as this lexer always has: a
+  // "/" that does not start a comment is dropped, a block comment
+  // ends at the first "/", and inside it the character after a
+  // "*" or a counted newline is not looked at. Columns do not
+  // move inside comments. A block comment still open at the end
+  // of the input is a LexicalError.
+  int skip() throws IOException
+  {
+    int c = this.source.read();
+    columnNum++;
+    c = blanks(c, true);
+    do {
+      if ('/' == c) {
+        c = this.source.read();
+        if ('/' == c) {
+          if (this.mapped != null) {
+            this.mapped.seek(this.mapped.find(this.mapped.position(), '\n',
+                '\n', '\n') + 1);
+            c = '\n';
+          } else {
+            do {
+              c = this.source.read();
+            } while ('\n' != c && -1 != c);
+          }
+          lineNum++;
+          c = this.source.read();
+        } else if ('*' == c) {
+          int line = lineNum;
+          do {
+            // other characters only keep the comment going
+            if (this.mapped != null)
+              this.mapped.seek(this.mapped.find(this.mapped.position(), '*',
+                  '\n', '/'));
+            c = this.source.read();
+            if ('*' == c)
+              c = this.source.read();
+            if ('\n' == c) {
+              lineNum++;
+              c = this.source.read();
+            }
+            if (-1 == c)
+              throw new LexicalError(this.fname, line,
+                  "unterminated comment");
+          } while ('/' != c);
+          c = this.source.read();
+        }
+      }
+      c = blanks(c, false);
+    } while ('/' == c);
+    return c;
+  }
+
+  // When called, scan the next token (refer to the code "Token.java")
+  // from the input stream, and return its kind. The position and
+  // lexeme of the token are left in the "token*" fields.
+  // Return TOKEN_EOF when reaching the end of the input stream.
+  Kind nextTokenInternal() throws IOException
+  {
+    int c = skip();
+
+    this.tokenStart = this.source.position() - 1;
     if (-1 == c)
-    	return new Token(Kind.TOKEN_EOF, lineNum, columnNum);
+    	return token(Kind.TOKEN_EOF, lineNum, null, columnNum);
     
     char ctemp = (char)c;
     
     switch (ctemp) {
     case '+':
-    	return new Token(Kind.TOKEN_ADD, lineNum, columnNum);
+    	return token(Kind.TOKEN_ADD, lineNum, null, columnNum);
     case '&':   // not deal with &&
-    {
-    	this.fstream.mark(99);
-    	columnNum++;
-    	c = this.fstream.read();
-    	if('&' == c)
-    		return new Token(Kind.TOKEN_AND, lineNum, columnNum);
-    	else 
+    	if('&' == this.source.peek(0))
     	{
-    		columnNum--;
-    		this.fstream.reset();
-    		return new Token(Kind.TOKEN_BITAND, lineNum, columnNum);
+    		this.source.read();
+    		columnNum++;
+    		return token(Kind.TOKEN_AND, lineNum, null, columnNum);
     	}
-    }
+    	return token(Kind.TOKEN_BITAND, lineNum, null, columnNum);
     case '|':
-    {
-    	this.fstream.mark(99);
-    	columnNum++;
-    	c = this.fstream.read();
-    	if('|' == c)
-    		return new Token(Kind.TOKEN_BITOR, lineNum, columnNum);
-    	else 
+    	if('|' == this.source.peek(0))
     	{
-    		columnNum--;
-    		this.fstream.reset();
-    		return new Token(Kind.TOKEN_OR, lineNum, columnNum);
+    		this.source.read();
+    		columnNum++;
+    		return token(Kind.TOKEN_BITOR, lineNum, null, columnNum);
     	}
-    }
+    	return token(Kind.TOKEN_OR, lineNum, null, columnNum);
     case '=': 
-    {
-    	this.fstream.mark(99);
-    	columnNum++;
-    	c = this.fstream.read();
-    	if('=' == c)
-    		return new Token(Kind.TOKEN_ASSIGN, lineNum, columnNum);
-    	else
+    	if('=' == this.source.peek(0))
     	{
-    		columnNum--;
-    		this.fstream.reset();
-    		return new Token(Kind.TOKEN_EQ, lineNum, columnNum);
+    		this.source.read();
+    		columnNum++;
+    		return token(Kind.TOKEN_ASSIGN, lineNum, null, columnNum);
     	}
-    }
+    	return token(Kind.TOKEN_EQ, lineNum, null, columnNum);
     case ',':
-    	return new Token(Kind.TOKEN_COMMER, lineNum, columnNum);
+    	return token(Kind.TOKEN_COMMER, lineNum, null, columnNum);
     case '.':
-    	return new Token(Kind.TOKEN_DOT, lineNum, columnNum);
+    	return token(Kind.TOKEN_DOT, lineNum, null, columnNum);
     case '{':
-    	return new Token(Kind.TOKEN_LBRACE, lineNum, columnNum);
+    	return token(Kind.TOKEN_LBRACE, lineNum, null, columnNum);
     case '[':
-    	return new Token(Kind.TOKEN_LBRACK, lineNum, columnNum);
+    	return token(Kind.TOKEN_LBRACK, lineNum, null, columnNum);
     case '(':
-    	return new Token(Kind.TOKEN_LPAREN, lineNum, columnNum);
+    	return token(Kind.TOKEN_LPAREN, lineNum, null, columnNum);
     case '<':
-    	return new Token(Kind.TOKEN_LT, lineNum, columnNum);
+    	return token(Kind.TOKEN_LT, lineNum, null, columnNum);
     case '!':
-    	return new Token(Kind.TOKEN_NOT, lineNum, columnNum);
+    	return token(Kind.TOKEN_NOT, lineNum, null, columnNum);
     case '}':
-    	return new Token(Kind.TOKEN_RBRACE, lineNum, columnNum);
+    	return token(Kind.TOKEN_RBRACE, lineNum, null, columnNum);
     case ']':
-    	return new Token(Kind.TOKEN_RBRACK, lineNum, columnNum);
+    	return token(Kind.TOKEN_RBRACK, lineNum, null, columnNum);
     case ')':
-    	return new Token(Kind.TOKEN_RPAREN, lineNum, columnNum);
+    	return token(Kind.TOKEN_RPAREN, lineNum, null, columnNum);
     case '-':
-    	return new Token(Kind.TOKEN_SUB, lineNum, columnNum);
+    	return token(Kind.TOKEN_SUB, lineNum, null, columnNum);
     case ';':
-    	return new Token(Kind.TOKEN_SEMI, lineNum, columnNum);
+    	return token(Kind.TOKEN_SEMI, lineNum, null, columnNum);
     case '*':
-    	return new Token(Kind.TOKEN_TIMES, lineNum, columnNum);
+    	return token(Kind.TOKEN_TIMES, lineNum, null, columnNum);
     case '>':
-    	return new Token(Kind.TOKEN_GT, lineNum, columnNum);
+    	return token(Kind.TOKEN_GT, lineNum, null, columnNum);
     	
  //   default:
       // Lab 1, exercise 2: supply missing code to
@@ -202,125 +383,74 @@ public class Lexer
     if(Character.isLetter(c) || '_' == c)
     {
     	int coltemp = columnNum;
-    	StringBuffer temp = new StringBuffer();
-    	do {
-    		temp.append((char)c);
-    		this.fstream.mark(99);
-    		columnNum++;
-    		c = this.fstream.read();
-    	}while(Character.isLetterOrDigit(c) || '_' == c );
-    	
-    	columnNum--;
-    	this.fstream.reset();
-    	String s = temp.toString();
-    	
- 	switch(s)
+    	int length = 0;
+    	length = append(length, c);
+    	while(Character.isLetterOrDigit(c = this.source.peek(0)) || '_' == c)
     	{
-    	case "class":
-    		return new Token(Kind.TOKEN_CLASS, lineNum, s, coltemp);
-    	case "boolean":
-    		return new Token(Kind.TOKEN_BOOLEAN, lineNum, s, coltemp);
-    	case "else":
-    		return new Token(Kind.TOKEN_ELSE, lineNum, s, coltemp);
-    	case "extends":
-    		return new Token(Kind.TOKEN_EXTENDS, lineNum, s, coltemp);
-    	case "false":
-    		return new Token(Kind.TOKEN_FALSE, lineNum, s, coltemp);
-    	case "if":
-    		return new Token(Kind.TOKEN_IF, lineNum, s, coltemp);   	
-    	case "int":
-    		return new Token(Kind.TOKEN_INT, lineNum, s, coltemp);  
-    	case "length":
-    		return new Token(Kind.TOKEN_LENGTH, lineNum, s, coltemp);  
-    	case "main":
-    		return new Token(Kind.TOKEN_MAIN, lineNum, s, coltemp);  
-    	case "new":
-    		return new Token(Kind.TOKEN_NEW, lineNum, s, coltemp);
-    	case "out":
-    		return new Token(Kind.TOKEN_OUT, lineNum, s, coltemp);
-    	case "println":
-    		return new Token(Kind.TOKEN_PRINTLN, lineNum, s, coltemp);
-    	case "public":
-    		return new Token(Kind.TOKEN_PUBLIC, lineNum, s, coltemp);
-    	case "return":
-    		return new Token(Kind.TOKEN_RETURN, lineNum, s, coltemp);
-    	case "static":
-    		return new Token(Kind.TOKEN_STATIC, lineNum, s, coltemp);
-    	case "String":
-    		return new Token(Kind.TOKEN_STRING, lineNum, s, coltemp);
-    	case "System":
-    		return new Token(Kind.TOKEN_SYSTEM, lineNum, s, coltemp);
-    	case "this":
-    		return new Token(Kind.TOKEN_THIS, lineNum, s, coltemp);
-    	case "true":
-    		return new Token(Kind.TOKEN_TRUE, lineNum, s, coltemp);
-    	case "void":
-    		return new Token(Kind.TOKEN_VOID, lineNum, s, coltemp);
-    	    	case "while":
-    		return new Token(Kind.TOKEN_WHILE, lineNum, s, coltemp);
-    	case "delete":
-    		return new Token(Kind.TOKEN_DELETE, lineNum, s, coltemp);
-    	case "protected":
-    		return new Token(Kind.TOKEN_PROTECTED, lineNum, s, coltemp);
-    	case "private":
-    		return new Token(Kind.TOKEN_PRIVATE, lineNum, s, coltemp);
-    	case "real":
-    		return new Token(Kind.TOKEN_SYSTEM, lineNum, s, coltemp);
-    
+    		length = append(length, this.source.read());
+    		columnNum++;
     	}
-  
-    	return new Token(Kind.TOKEN_ID, lineNum, s, coltemp);
+
+    	int k = Keywords.find(this.word, 0, length);
+    	if (k != -1)
+    		return token(Keywords.kind(k), lineNum, Keywords.word(k), coltemp);
+    	Symbol sym = this.symbols.intern(this.word, 0, length);
+    	token(Kind.TOKEN_ID, lineNum, sym.name, coltemp);
+    	this.tokenSymbol = sym;
+    	return Kind.TOKEN_ID;
     };
     
     if(Character.isDigit(c))
     {
-    	int v = 0;
     	int vclotemp = columnNum;
-    	do {
-    	v = 10 * v + Character.digit(c, 10);
-    	this.fstream.mark(99);
-    	columnNum++;
-    	c = this.fstream.read();
-    	}while(Character.isDigit(c));
-    	if('.' != c)
-    		{
-    		columnNum--;
-    		this.fstream.reset();
-    		return new Token(Kind.TOKEN_NUM, lineNum, String.valueOf(v), vclotemp);
-    		}
-    	float f = v; float d = 10;
-    	do {
+    	int length = 0;
+    	long v = appendDigit(0, c);
+    	length = append(length, c);
+    	while(Character.isDigit(this.source.peek(0)))
+    	{
+    		c = this.source.read();
+    		v = appendDigit(v, c);
+    		length = append(length, c);
     		columnNum++;
-    		c = this.fstream.read();
-    		f = v + Character.digit(c, 10) / d;
-    		d = d * 10;
-    	}while(Character.isDigit(c));
-    	String temp = String.valueOf(f);
-    	columnNum--;
-    	this.fstream.reset();
-    	return new Token(Kind.TOKEN_REAL, lineNum, temp, vclotemp);
+    	}
+    	// "digits.digits" is a real; "digits." with no digit after it
+    	// is a NUM, then a DOT
+    	if('.' == this.source.peek(0) && Character.isDigit(this.source.peek(1)))
+    		return fraction(length, v, vclotemp);
+    	return integer(v, vclotemp);
     }
     else
     {
-        Token t=new Token(Kind.TOKEN_ID,c);
-        c=' ';
-        return t;
+        // an unexpected character: the character code ends up
+        // in the line number, and the token has no column.
+        return token(Kind.TOKEN_ID, c, null, NO_COLUMN);
     }
    
   }
   
-  public Token nextToken()
+  // Scan the next token and append it to "tokens", without
+  // creating a Token object. An error reading the source is
+  // thrown as an UncheckedIOException, and one in its characters
+  // as a LexicalError.
+  public Kind nextToken(TokenBuffer tokens)
   {
-    Token t = null;
+    Kind kind = null;
 
     try {
-      t = this.nextTokenInternal();
-    } catch (Exception e) {
-      e.printStackTrace();
-      System.exit(1);
+      kind = this.nextTokenInternal();
+    } catch (IOException e) {
+      if (this.echo != null)
+        this.echo.flush();
+      throw new UncheckedIOException(e);
     }
-    if (control.Control.lex)
-      System.out.println(t.toString());
-    return t;
+    int length = (kind == Kind.TOKEN_EOF) ? 0 : this.source.position()
+        - this.tokenStart;
+    long value = (kind == Kind.TOKEN_NUM || kind == Kind.TOKEN_REAL) ? this.tokenValue
+        : 0;
+    tokens.add(kind, this.tokenLine, this.tokenColumn, this.tokenStart,
+        length, value, this.tokenSymbol);
+    if (this.echo != null)
+      this.echo.write(tokens, tokens.size() - 1);
+    return kind;
   }
 }
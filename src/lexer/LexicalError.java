@@ -0,0 +1,27 @@
+package lexer;
+
+import util.Diagnostic;
+
+// An error in the characters of a source that stops the lexer,
+// such as an integer literal too large for a long.
+public class LexicalError extends RuntimeException
+{
+  private static final long serialVersionUID = 1L;
+
+  public final String fname;
+  public final int line;
+  public final String reason;
+
+  public LexicalError(String fname, int line, String reason)
+  {
+    super(fname + ": " + reason + " at line " + line);
+    this.fname = fname;
+    this.line = line;
+    this.reason = reason;
+  }
+
+  public Diagnostic diagnostic()
+  {
+    return new Diagnostic(this.fname, this.line, -1, this.reason);
+  }
+}
@@ -0,0 +1,193 @@
+package lexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// A source backed by a memory-mapped file. Reading is an
+// indexed load from the mapping, and lookahead is just
+// index arithmetic.
+public class MappedSource extends Source
+{
+  private ByteBuffer buffer;
+  private int pos;
+  private int limit;
+
+  public MappedSource(File file) throws IOException
+  {
+    // the mapping stays valid after the channel is closed.
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel()) {
+      this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+          channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    this.pos = 0;
+    this.limit = this.buffer.limit();
+  }
+
+  // A source over the bytes of "buffer", which need not be a
+  // mapping: an editor can wrap the text it holds in memory.
+  public MappedSource(ByteBuffer buffer)
+  {
+    // little-endian, so that the first byte of a word is its
+    // lowest one (see "first()")
+    this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    this.pos = 0;
+    this.limit = buffer.limit();
+  }
+
+  // the size of the input, in bytes
+  public int length()
+  {
+    return this.limit;
+  }
+
+  // the byte at "index", which must be below "length()"
+  public int get(int index)
+  {
+    return this.buffer.get(index) & 0xff;
+  }
+
+  // all the bytes of the input, whatever has been read
+  ByteBuffer buffer()
+  {
+    return this.buffer.duplicate();
+  }
+
+  // A new, independent source over the bytes [from, to) of this
+  // one. Slices share the mapping, so they are cheap, and they can
+  // be read from different threads.
+  public MappedSource slice(int from, int to)
+  {
+    return new MappedSource(this.buffer.slice(from, to - from));
+  }
+
+  @Override
+  public int read()
+  {
+    if (this.pos >= this.limit) {
+      // keep counting, like the stream does
+      this.pos++;
+      return -1;
+    }
+    return this.buffer.get(this.pos++) & 0xff;
+  }
+
+  @Override
+  public int peek(int k)
+  {
+    int i = this.pos + k;
+    if (i >= this.limit)
+      return -1;
+    return this.buffer.get(i) & 0xff;
+  }
+
+  @Override
+  public int position()
+  {
+    return this.pos;
+  }
+
+  // continue reading at "pos"
+  public void seek(int pos)
+  {
+    this.pos = pos;
+  }
+
+  // /////////////////////////////////////////////////////
+  // Word-at-a-time (SWAR) scanning: the lexer uses these to skip
+  // blanks and comments 8 bytes at a time. Each one looks at whole
+  // little-endian longs while 8 bytes are left, and finishes the
+  // tail byte by byte. The position may be past the end (see
+  // "read()"), so the loops compare against "limit - 8", which
+  // cannot overflow.
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOWS = 0x7f7f7f7f7f7f7f7fL;
+
+  // 0x80 in every byte of "word" that equals "b", 0 elsewhere.
+  // (Unlike the shorter "(x - ONES) & ~x" trick, this never
+  // flags a byte by mistake, so its bits can be counted.)
+  private static long eq(long word, int b)
+  {
+    long x = word ^ (ONES * b);
+    return ~(((x & LOWS) + LOWS) | x | LOWS);
+  }
+
+  // the offset of the first flagged byte in a non-zero mask
+  private static int first(long mask)
+  {
+    return Long.numberOfTrailingZeros(mask) >>> 3;
+  }
+
+  private static boolean isBlank(int c)
+  {
+    return ' ' == c || '\t' == c || '\n' == c;
+  }
+
+  // the first offset at or after "from" whose byte is not a
+  // blank (space, tab, newline), or "length()".
+  int skipBlanks(int from)
+  {
+    int i = from;
+    for (; i <= this.limit - 8; i += 8) {
+      long w = this.buffer.getLong(i);
+      long blank = eq(w, ' ') | eq(w, '\t') | eq(w, '\n');
+      if (blank != 0x8080808080808080L)
+        return i + first(~blank & 0x8080808080808080L);
+    }
+    while (i < this.limit && isBlank(get(i)))
+      i++;
+    return i;
+  }
+
+  // the first offset at or after "from" whose byte is "a", "b"
+  // or "c", or "length()".
+  int find(int from, int a, int b, int c)
+  {
+    int i = from;
+    for (; i <= this.limit - 8; i += 8) {
+      long w = this.buffer.getLong(i);
+      long m = eq(w, a) | eq(w, b) | eq(w, c);
+      if (m != 0)
+        return i + first(m);
+    }
+    for (; i < this.limit; i++) {
+      int x = get(i);
+      if (x == a || x == b || x == c)
+        return i;
+    }
+    return i;
+  }
+
+  // the number of bytes equal to "b" in [from, to)
+  int count(int from, int to, int b)
+  {
+    int n = 0;
+    int i = from;
+    for (; i <= to - 8; i += 8)
+      n += Long.bitCount(eq(this.buffer.getLong(i), b));
+    for (; i < to; i++)
+      if (get(i) == b)
+        n++;
+    return n;
+  }
+
+  // the last offset in [from, to) whose byte is "b", or -1
+  int lastIndexOf(int from, int to, int b)
+  {
+    for (int i = to - 1; i >= from; i--)
+      if (get(i) == b)
+        return i;
+    return -1;
+  }
+
+  @Override
+  public void close()
+  {
+    this.buffer = null;
+  }
+}
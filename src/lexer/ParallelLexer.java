@@ -0,0 +1,142 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import control.Options;
+
+// Lexes one big mapped file on several threads. The file is
+// cut into chunks at "safe" newlines, each chunk is lexed by
+// its own Lexer on a ForkJoinPool, and the chunk token streams
+// are concatenated in order, with their line numbers rebased.
+// The result is the same token stream the sequential lexer
+// produces.
+//
+// A newline is safe when it is outside any comment and follows
+// a ";", "{" or "}" with only blanks in between: the sequential
+// lexer then consumes it while skipping blanks after a token,
+// which resets the column to 0, so a fresh lexer started right
+// after it is in exactly the same state, up to the line number.
+public class ParallelLexer
+{
+  // by default, chunks are never smaller than this
+  public static final int MIN_CHUNK = 64 * 1024;
+
+  // Return the offsets at which to cut "source" into chunks of
+  // roughly "chunkSize" bytes. The offsets are increasing, and
+  // each one is just past a safe newline.
+  //
+  // Finding them takes one pass over the bytes that follows the
+  // lexer's own comment rules, including its quirks: a block
+  // comment ends at the first "/" after "/*", a "*" or a newline
+  // inside it swallows the character after it, and a "/" that
+  // does not start a comment is dropped.
+  static List<Integer> cuts(MappedSource source, int chunkSize)
+  {
+    List<Integer> cuts = new ArrayList<Integer>();
+    int n = source.length();
+    int next = chunkSize; // don't cut before this offset
+    int last = 0; // the last non-blank character outside comments
+    int i = 0;
+    while (i < n) {
+      int c = source.get(i++);
+      switch (c) {
+      case '/':
+        last = 0;
+        if (i >= n)
+          break;
+        c = source.get(i);
+        if ('/' == c) {
+          i++;
+          while (i < n && source.get(i) != '\n')
+            i++;
+          i++;
+        } else if ('*' == c) {
+          i++;
+          do {
+            c = (i < n) ? source.get(i++) : '/';
+            if ('*' == c)
+              c = (i < n) ? source.get(i++) : '/';
+            if ('\n' == c)
+              c = (i < n) ? source.get(i++) : '/';
+          } while ('/' != c);
+        }
+        break;
+      case '\n':
+        if ((';' == last || '{' == last || '}' == last) && i >= next
+            && i < n) {
+          cuts.add(i);
+          next = i + chunkSize;
+        }
+        last = 0;
+        break;
+      case ' ':
+      case '\t':
+        break;
+      default:
+        last = c;
+        break;
+      }
+    }
+    return cuts;
+  }
+
+  // Lex "source" in chunks of about "chunkSize" bytes on "pool",
+  // with lexers of the kind "options" select.
+  public static TokenBuffer lex(final String fname, MappedSource source,
+      final Options options, int chunkSize, ForkJoinPool pool)
+  {
+    List<Integer> cuts = cuts(source, chunkSize);
+    cuts.add(source.length());
+
+    List<ForkJoinTask<TokenBuffer>> tasks = new ArrayList<ForkJoinTask<TokenBuffer>>();
+    int from = 0;
+    for (int to : cuts) {
+      final MappedSource chunk = source.slice(from, to);
+      tasks.add(pool.submit(new Callable<TokenBuffer>() {
+        @Override
+        public TokenBuffer call()
+        {
+          TokenBuffer tokens = new TokenBuffer(Lexer.create(fname, chunk,
+              options));
+          tokens.fillAll();
+          return tokens;
+        }
+      }));
+      from = to;
+    }
+
+    TokenBuffer result = new TokenBuffer(new SymbolTable());
+    int lineDelta = 0;
+    from = 0;
+    for (int k = 0; k < tasks.size(); k++) {
+      TokenBuffer chunk;
+      try {
+        chunk = tasks.get(k).join();
+      } catch (LexicalError e) {
+        // the chunk's lexer counted its lines from 1
+        throw new LexicalError(e.fname, e.line + lineDelta, e.reason);
+      }
+      // drop the TOKEN_EOF of all chunks but the last one
+      int n = (k == tasks.size() - 1) ? chunk.size() : chunk.size() - 1;
+      result.append(chunk, 0, n, lineDelta, from);
+      // each chunk starts on line 1
+      lineDelta += chunk.lastLineNum() - 1;
+      from = cuts.get(k);
+    }
+    return result;
+  }
+
+  // Lex "source" using all cores.
+  public static TokenBuffer lex(String fname, MappedSource source,
+      Options options)
+  {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    int chunkSize = Math.max(MIN_CHUNK,
+        source.length() / (4 * pool.getParallelism()) + 1);
+    return lex(fname, source, options, chunkSize, pool);
+  }
+}
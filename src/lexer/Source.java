@@ -0,0 +1,39 @@
+package lexer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+// The characters the lexer reads from. A source supports
+// one-character reading plus a bounded lookahead, which is
+// all the lexer needs.
+public abstract class Source
+{
+  // "peek(k)" works for any k below this
+  public static final int MAX_LOOKAHEAD = 16;
+
+  // return the next byte, or -1 at the end of the input.
+  public abstract int read() throws IOException;
+
+  // Return the byte "k" places after the next one, without
+  // reading anything, or -1 if that is past the end of the
+  // input. "peek(0)" is what "read()" would return.
+  public abstract int peek(int k) throws IOException;
+
+  // the number of bytes read so far (reading past the end of
+  // the input still counts).
+  public abstract int position();
+
+  public abstract void close() throws IOException;
+
+  // Pick the fastest backend for the file "fname": regular
+  // files are memory-mapped, everything else (pipes, devices)
+  // is read as a stream.
+  public static Source open(String fname) throws IOException
+  {
+    File file = new File(fname);
+    if (file.isFile() && file.length() <= Integer.MAX_VALUE)
+      return new MappedSource(file);
+    return new StreamSource(new FileInputStream(file));
+  }
+}
@@ -0,0 +1,82 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// A source backed by an input stream, for inputs that cannot
+// be mapped (pipes, standard input, ...).
+//
+// The source owns a window of the stream's bytes, refilled with
+// large block reads, so reading and peeking are plain array
+// accesses: the stream itself is only touched to refill.
+public class StreamSource extends Source
+{
+  private static final int BLOCK = 64 * 1024;
+
+  private InputStream fstream;
+  private byte[] buffer = new byte[BLOCK];
+  private int index; // the next byte to read in "buffer"
+  private int limit; // the end of the valid bytes in "buffer"
+  private boolean eof; // the stream has no more bytes
+  private int pos;
+
+  public StreamSource(InputStream fstream)
+  {
+    this.fstream = fstream;
+    this.index = 0;
+    this.limit = 0;
+    this.eof = false;
+    this.pos = 0;
+  }
+
+  // Make at least "n" unread bytes available, unless the stream
+  // ends first. Return whether there are "n" of them.
+  private boolean fill(int n) throws IOException
+  {
+    if (this.index > 0) {
+      // keep only the unread bytes
+      System.arraycopy(this.buffer, this.index, this.buffer, 0, this.limit
+          - this.index);
+      this.limit -= this.index;
+      this.index = 0;
+    }
+    while (this.limit < n && !this.eof) {
+      int got = this.fstream.read(this.buffer, this.limit,
+          this.buffer.length - this.limit);
+      if (got == -1)
+        this.eof = true;
+      else
+        this.limit += got;
+    }
+    return this.limit >= n;
+  }
+
+  @Override
+  public int read() throws IOException
+  {
+    this.pos++;
+    if (this.index == this.limit && !fill(1))
+      return -1;
+    return this.buffer[this.index++] & 0xff;
+  }
+
+  @Override
+  public int peek(int k) throws IOException
+  {
+    if (this.index + k >= this.limit && !fill(k + 1))
+      return -1;
+    return this.buffer[this.index + k] & 0xff;
+  }
+
+  @Override
+  public int position()
+  {
+    return this.pos;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    this.fstream.close();
+  }
+}
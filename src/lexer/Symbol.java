@@ -0,0 +1,26 @@
+package lexer;
+
+// An interned identifier. There is exactly one Symbol per
+// distinct name in a SymbolTable, so two identifiers are
+// equal iff their symbols are the same object (or have the
+// same id). Ids are dense, starting from 0, so they can
+// index per-symbol arrays.
+public class Symbol
+{
+  public final String name;
+  public final int id;
+  final int hash;
+
+  Symbol(String name, int id, int hash)
+  {
+    this.name = name;
+    this.id = id;
+    this.hash = hash;
+  }
+
+  @Override
+  public String toString()
+  {
+    return this.name;
+  }
+}
@@ -0,0 +1,101 @@
+package lexer;
+
+// Interns identifiers into Symbols. The table is an open-addressing
+// hash (linear probing) keyed on the raw characters of a name, so a
+// name that has been seen before costs no allocation at all.
+public class SymbolTable
+{
+  private Symbol[] slots; // size is a power of 2
+  // indexed by symbol id. Volatile, so that get() works on
+  // another thread than intern(), for the ids that thread
+  // was given after they were interned (see TokenPipe).
+  private volatile Symbol[] symbols;
+  private int count;
+
+  public SymbolTable()
+  {
+    this.slots = new Symbol[256];
+    this.symbols = new Symbol[128];
+    this.count = 0;
+  }
+
+  private static int hash(char[] s, int offset, int length)
+  {
+    int h = 0;
+    for (int i = offset; i < offset + length; i++)
+      h = 31 * h + s[i];
+    return h ^ (h >>> 16);
+  }
+
+  private static boolean same(Symbol sym, char[] s, int offset, int length)
+  {
+    String name = sym.name;
+    if (name.length() != length)
+      return false;
+    for (int i = 0; i < length; i++)
+      if (name.charAt(i) != s[offset + i])
+        return false;
+    return true;
+  }
+
+  // Return the symbol for the name s[offset, offset+length),
+  // creating it the first time the name is seen.
+  public Symbol intern(char[] s, int offset, int length)
+  {
+    int h = hash(s, offset, length);
+    int mask = this.slots.length - 1;
+    int i = h & mask;
+    Symbol sym;
+    while ((sym = this.slots[i]) != null) {
+      if (sym.hash == h && same(sym, s, offset, length))
+        return sym;
+      i = (i + 1) & mask;
+    }
+
+    sym = new Symbol(new String(s, offset, length), this.count, h);
+    this.slots[i] = sym;
+    Symbol[] symbols = this.symbols;
+    if (this.count == symbols.length) {
+      symbols = java.util.Arrays.copyOf(symbols, 2 * this.count);
+      this.symbols = symbols;
+    }
+    symbols[this.count++] = sym;
+    // keep the load factor under 1/2
+    if (2 * this.count > this.slots.length)
+      rehash();
+    return sym;
+  }
+
+  public Symbol intern(String name)
+  {
+    return intern(name.toCharArray(), 0, name.length());
+  }
+
+  private void rehash()
+  {
+    Symbol[] old = this.slots;
+    this.slots = new Symbol[2 * old.length];
+    int mask = this.slots.length - 1;
+    for (Symbol sym : old) {
+      if (sym == null)
+        continue;
+      int i = sym.hash & mask;
+      while (this.slots[i] != null)
+        i = (i + 1) & mask;
+      this.slots[i] = sym;
+    }
+    return;
+  }
+
+  // the symbol with id "id"
+  public Symbol get(int id)
+  {
+    return this.symbols[id];
+  }
+
+  // the number of distinct symbols
+  public int size()
+  {
+    return this.count;
+  }
+}
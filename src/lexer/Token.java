@@ -73,9 +73,12 @@ public class Token
   }
 
   public Kind kind; // kind of the token
-  public String lexeme; // extra lexeme for this token, if any
+  private String lexeme; // extra lexeme for this token, if any
   public Integer lineNum; // on which line of the source file this token appears
   public Integer columnNum; 
+  // where to find the lexeme, until it is first asked for
+  private TokenBuffer tokens;
+  private int index;
   
   // Some tokens don't come with lexeme but 
   // others do.
@@ -104,6 +107,37 @@ public class Token
     this.lexeme = lexeme;
     this.columnNum = columnNum;
   }
+
+  // token "index" of "tokens"
+  Token(Kind kind, Integer lineNum, Integer columnNum, TokenBuffer tokens,
+      int index)
+  {
+    this(kind, lineNum, columnNum);
+    this.tokens = tokens;
+    this.index = index;
+  }
+
+  // the lexeme of this token, or null if it has none
+  public String lexeme()
+  {
+    if (this.tokens != null) {
+      this.lexeme = this.tokens.lexeme(this.index);
+      this.tokens = null;
+    }
+    return this.lexeme;
+  }
+
+  // The lexeme of a number literal of kind "kind" (TOKEN_NUM or
+  // TOKEN_REAL), from the raw value the lexer recorded for it:
+  // the value itself for an integer, and the bits of the double
+  // for a real.
+  static String literal(Kind kind, long value)
+  {
+    if (kind == Kind.TOKEN_REAL)
+      return String.valueOf(Double.longBitsToDouble(value));
+    return String.valueOf(value);
+  }
+
   @Override
   public String toString()
   {
@@ -113,8 +147,10 @@ public class Token
     if (this.lineNum == null)
       new util.Todo();
 
-    s = ": " + ((this.lexeme == null) ? "\t<>" : "\t"+this.lexeme) + " \t : at line "
-        + this.lineNum.toString() + "\t : at column " + this.columnNum.toString();
+    String lexeme = this.lexeme();
+    s = ": " + ((lexeme == null) ? "\t<>" : "\t"+lexeme) + " \t : at line "
+        + this.lineNum.toString() + "\t : at column "
+        + ((this.columnNum == null) ? "?" : this.columnNum.toString());
     return this.kind.toString() + s;
   }
 }
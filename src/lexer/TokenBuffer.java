@@ -0,0 +1,429 @@
+package lexer;
+
+import lexer.Token.Kind;
+
+// All tokens of one source file, stored column-wise in
+// parallel arrays instead of one Token object per token:
+// the kind is kept as its ordinal, and each token records
+// the span (start offset, length) it covers in the source.
+// No lexeme is stored as text: an identifier has a symbol, a
+// keyword's lexeme is the keyword, and a number keeps its
+// value, which is only turned into a String if the lexeme is
+// asked for.
+// The buffer is filled lazily: a cursor that runs past
+// the last token asks the lexer for the next one, or takes
+// the next batch from a lexer running on another thread
+// (see TokenPipe).
+public class TokenBuffer
+{
+  private static final Kind[] KINDS = Kind.values();
+  private static final int NO_SYMBOL = -1;
+
+  private Lexer lexer; // null if the buffer is filled up front
+  private TokenPipe pipe; // or by a lexer thread
+  private SymbolTable symbolTable;
+  private boolean eof;
+
+  private int count;
+  private byte[] kinds;
+  private int[] lines;
+  private int[] columns;
+  private int[] starts; // source offset of the first character
+  private int[] lengths; // number of source characters
+  private int[] symbols; // symbol ids of TOKEN_IDs
+  private long[] values; // values of TOKEN_NUMs and TOKEN_REALs
+
+  public TokenBuffer(Lexer lexer)
+  {
+    this(lexer.symbols());
+    this.lexer = lexer;
+  }
+
+  TokenBuffer(TokenPipe pipe, SymbolTable symbolTable)
+  {
+    this(symbolTable);
+    this.pipe = pipe;
+  }
+
+  // a buffer with no lexer behind it: all of its tokens,
+  // up to TOKEN_EOF, are added before it is read.
+  TokenBuffer(SymbolTable symbolTable)
+  {
+    this.lexer = null;
+    this.pipe = null;
+    this.symbolTable = symbolTable;
+    this.eof = false;
+    this.count = 0;
+    this.kinds = new byte[1024];
+    this.lines = new int[1024];
+    this.columns = new int[1024];
+    this.starts = new int[1024];
+    this.lengths = new int[1024];
+    this.symbols = new int[1024];
+    this.values = new long[1024];
+  }
+
+  // called by the lexer for each token it scans. "symbol" is
+  // only given for TOKEN_ID, and "value" only matters for
+  // number literals (see Token.literal()).
+  void add(Kind kind, int line, int column, int start, int length,
+      long value, Symbol symbol)
+  {
+    add(kind, line, column, start, length, value, (symbol == null) ? NO_SYMBOL
+        : symbol.id);
+    return;
+  }
+
+  // make room for "n" tokens in all
+  private void reserve(int n)
+  {
+    if (n <= this.kinds.length)
+      return;
+    n = Math.max(n, this.kinds.length * 2);
+    this.kinds = java.util.Arrays.copyOf(this.kinds, n);
+    this.lines = java.util.Arrays.copyOf(this.lines, n);
+    this.columns = java.util.Arrays.copyOf(this.columns, n);
+    this.starts = java.util.Arrays.copyOf(this.starts, n);
+    this.lengths = java.util.Arrays.copyOf(this.lengths, n);
+    this.symbols = java.util.Arrays.copyOf(this.symbols, n);
+    this.values = java.util.Arrays.copyOf(this.values, n);
+    return;
+  }
+
+  private void add(Kind kind, int line, int column, int start, int length,
+      long value, int symbol)
+  {
+    if (this.count == this.kinds.length)
+      reserve(this.count + 1);
+    this.kinds[this.count] = (byte) kind.ordinal();
+    this.lines[this.count] = line;
+    this.columns[this.count] = column;
+    this.starts[this.count] = start;
+    this.lengths[this.count] = length;
+    this.symbols[this.count] = symbol;
+    this.values[this.count] = value;
+    if (kind == Kind.TOKEN_EOF)
+      this.eof = true;
+    this.count++;
+  }
+
+  // Append tokens [from, to) of "other", which was lexed from
+  // another part of the input (or an older version of it): lines
+  // are shifted by "lineDelta" and offsets by "offsetDelta", and
+  // symbols are re-interned in this buffer's table unless both
+  // buffers share it. The arrays are copied in bulk, then fixed up.
+  void append(TokenBuffer other, int from, int to, int lineDelta,
+      int offsetDelta)
+  {
+    Symbol[] map = null;
+    if (other.symbolTable != this.symbolTable) {
+      map = new Symbol[other.symbolTable.size()];
+      for (int id = 0; id < map.length; id++)
+        map[id] = this.symbolTable.intern(other.symbolTable.get(id).name);
+    }
+
+    int n = to - from;
+    if (n <= 0)
+      return;
+    int c = this.count;
+    reserve(c + n);
+    System.arraycopy(other.kinds, from, this.kinds, c, n);
+    System.arraycopy(other.lines, from, this.lines, c, n);
+    System.arraycopy(other.columns, from, this.columns, c, n);
+    System.arraycopy(other.starts, from, this.starts, c, n);
+    System.arraycopy(other.lengths, from, this.lengths, c, n);
+    System.arraycopy(other.symbols, from, this.symbols, c, n);
+    System.arraycopy(other.values, from, this.values, c, n);
+    for (int j = c; j < c + n; j++) {
+      // tokens with no column keep their odd line number as is
+      if (lineDelta != 0 && this.columns[j] != Lexer.NO_COLUMN)
+        this.lines[j] += lineDelta;
+      this.starts[j] += offsetDelta;
+      if (map != null && this.symbols[j] != NO_SYMBOL)
+        this.symbols[j] = map[this.symbols[j]].id;
+    }
+    this.count = c + n;
+    if (this.kinds[this.count - 1] == Kind.TOKEN_EOF.ordinal())
+      this.eof = true;
+    return;
+  }
+
+  // Replace tokens [from, to) with the first "n" tokens of "other",
+  // which shares this buffer's symbol table, and shift the lines
+  // of the tokens after them by "lineDelta" and their offsets by
+  // "offsetDelta", in place: only the tokens after the replaced
+  // ones are moved, and only if there are not "n" of those.
+  void splice(int from, int to, TokenBuffer other, int n, int lineDelta,
+      int offsetDelta)
+  {
+    int tail = this.count - to;
+    int end = from + n;
+    reserve(end + tail);
+    if (end != to) {
+      System.arraycopy(this.kinds, to, this.kinds, end, tail);
+      System.arraycopy(this.lines, to, this.lines, end, tail);
+      System.arraycopy(this.columns, to, this.columns, end, tail);
+      System.arraycopy(this.starts, to, this.starts, end, tail);
+      System.arraycopy(this.lengths, to, this.lengths, end, tail);
+      System.arraycopy(this.symbols, to, this.symbols, end, tail);
+      System.arraycopy(this.values, to, this.values, end, tail);
+    }
+    System.arraycopy(other.kinds, 0, this.kinds, from, n);
+    System.arraycopy(other.lines, 0, this.lines, from, n);
+    System.arraycopy(other.columns, 0, this.columns, from, n);
+    System.arraycopy(other.starts, 0, this.starts, from, n);
+    System.arraycopy(other.lengths, 0, this.lengths, from, n);
+    System.arraycopy(other.symbols, 0, this.symbols, from, n);
+    System.arraycopy(other.values, 0, this.values, from, n);
+    this.count = end + tail;
+    for (int j = end; j < this.count; j++) {
+      // tokens with no column keep their odd line number as is
+      if (lineDelta != 0 && this.columns[j] != Lexer.NO_COLUMN)
+        this.lines[j] += lineDelta;
+      this.starts[j] += offsetDelta;
+    }
+    this.eof = this.count > 0
+        && this.kinds[this.count - 1] == Kind.TOKEN_EOF.ordinal();
+    return;
+  }
+
+  // empty the buffer, to fill it again
+  void clear()
+  {
+    this.count = 0;
+    this.eof = false;
+    return;
+  }
+
+  // the line number of the TOKEN_EOF that ends a complete buffer
+  int lastLineNum()
+  {
+    return this.lines[this.count - 1];
+  }
+
+  // make sure token "i" has been lexed, if the input has that many.
+  private boolean fill(int i)
+  {
+    while (i >= this.count && !this.eof) {
+      if (this.pipe != null)
+        this.pipe.take(this);
+      else
+        this.lexer.nextToken(this);
+    }
+    return i < this.count;
+  }
+
+  SymbolTable symbolTable()
+  {
+    return this.symbolTable;
+  }
+
+  // lex the whole input
+  public void fillAll()
+  {
+    fill(Integer.MAX_VALUE);
+    return;
+  }
+
+  // Stop the lexer thread filling the buffer, if there is one and
+  // it has not got to the end (see TokenPipe.close()). The tokens
+  // lexed so far can still be read.
+  public void close()
+  {
+    if (this.pipe != null && !this.eof)
+      this.pipe.close();
+    return;
+  }
+
+  // the number of tokens lexed so far
+  public int size()
+  {
+    return this.count;
+  }
+
+  public Kind kind(int i)
+  {
+    return KINDS[this.kinds[i]];
+  }
+
+  public int lineNum(int i)
+  {
+    return this.lines[i];
+  }
+
+  // The line token "i" is on, for messages. An unexpected
+  // character has no column, and its character code where the
+  // line should be (see Lexer), so it is put on the line of the
+  // last token before it that has a column, or on line 1.
+  public int sourceLine(int i)
+  {
+    while (i >= 0 && this.columns[i] == Lexer.NO_COLUMN)
+      i--;
+    return (i < 0) ? 1 : this.lines[i];
+  }
+
+  public int columnNum(int i)
+  {
+    return this.columns[i];
+  }
+
+  // the source offset at which token "i" starts
+  public int start(int i)
+  {
+    return this.starts[i];
+  }
+
+  // the number of source characters token "i" covers
+  public int length(int i)
+  {
+    return this.lengths[i];
+  }
+
+  // the raw value of a number literal, see Token.literal()
+  public long value(int i)
+  {
+    return this.values[i];
+  }
+
+  // the value of TOKEN_NUM "i"
+  public long integerValue(int i)
+  {
+    return this.values[i];
+  }
+
+  // the value of TOKEN_REAL "i"
+  public double realValue(int i)
+  {
+    return Double.longBitsToDouble(this.values[i]);
+  }
+
+  // The lexeme of token "i", or null if it has none. Only number
+  // literals build a new String; identifiers and keywords return
+  // a shared one.
+  public String lexeme(int i)
+  {
+    if (this.symbols[i] != NO_SYMBOL)
+      return symbol(i).name;
+    Kind kind = kind(i);
+    switch (kind) {
+    case TOKEN_NUM:
+    case TOKEN_REAL:
+      return Token.literal(kind, this.values[i]);
+    default:
+      return Keywords.word(kind, this.lengths[i]);
+    }
+  }
+
+  // the symbol of token "i", or null if it is not a TOKEN_ID.
+  public Symbol symbol(int i)
+  {
+    if (this.symbols[i] == NO_SYMBOL)
+      return null;
+    return this.symbolTable.get(this.symbols[i]);
+  }
+
+  // Token "i" as a Token object, for code that still wants one.
+  // Its lexeme is only looked up if it is asked for.
+  public Token token(int i)
+  {
+    if (this.columns[i] == Lexer.NO_COLUMN)
+      return new Token(kind(i), this.lines[i]);
+    return new Token(kind(i), this.lines[i], this.columns[i], this, i);
+  }
+
+  public String toString(int i)
+  {
+    return token(i).toString();
+  }
+
+  public Cursor cursor()
+  {
+    return new Cursor(0);
+  }
+
+  // a cursor on token "i", which must exist
+  public Cursor cursor(int i)
+  {
+    return new Cursor(i);
+  }
+
+  // A position in the token stream. "kind" always holds the
+  // kind of the token under the cursor.
+  public class Cursor
+  {
+    public Kind kind;
+    private int index;
+
+    private Cursor(int index)
+    {
+      this.index = index;
+      fill(index);
+      this.kind = kind(index);
+    }
+
+    // move to the next token; the cursor stays on TOKEN_EOF
+    // once it gets there.
+    public void advance()
+    {
+      if (fill(this.index + 1)) {
+        this.index++;
+        this.kind = kind(this.index);
+      }
+    }
+
+    public int index()
+    {
+      return this.index;
+    }
+
+    // the kind of the token "k" places after this one (TOKEN_EOF
+    // past the end)
+    public Kind peek(int k)
+    {
+      if (!fill(this.index + k))
+        return Kind.TOKEN_EOF;
+      return kind(this.index + k);
+    }
+
+    public int lineNum()
+    {
+      return TokenBuffer.this.lineNum(this.index);
+    }
+
+    public int columnNum()
+    {
+      return TokenBuffer.this.columnNum(this.index);
+    }
+
+    public int sourceLine()
+    {
+      return TokenBuffer.this.sourceLine(this.index);
+    }
+
+    public String lexeme()
+    {
+      return TokenBuffer.this.lexeme(this.index);
+    }
+
+    public long integerValue()
+    {
+      return TokenBuffer.this.integerValue(this.index);
+    }
+
+    public double realValue()
+    {
+      return TokenBuffer.this.realValue(this.index);
+    }
+
+    public Symbol symbol()
+    {
+      return TokenBuffer.this.symbol(this.index);
+    }
+
+    @Override
+    public String toString()
+    {
+      return TokenBuffer.this.toString(this.index);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package lexer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+
+import control.Options;
+
+// A directory of token streams, so that unchanged files need not
+// be lexed again. An entry is the binary token dump (see
+// BinaryTokenDump) of one source, named after the SHA-256 of the
+// source bytes and the version of the lexer; on a hit the entry
+// is mapped and decoded, and the lexer does not run at all.
+//
+// The version is a digest of the token kinds and of the class
+// files of the lexer itself, so entries written by a lexer that
+// produces different tokens are simply never found again. Stale
+// entries go the way of all others: once the directory holds more
+// than its size bound, the least recently used entries (by
+// modification time, which a hit refreshes) are deleted.
+//
+// Several compilers may share a directory: entries are written to
+// a temporary file and renamed into place.
+public class TokenCache
+{
+  private static final String SUFFIX = ".tok";
+  // the classes whose code decides what the tokens are
+  private static final Class<?>[] LEXER_CLASSES = { Lexer.class,
+      DfaLexer.class, Keywords.class, Source.class, MappedSource.class,
+      StreamSource.class, BinaryTokenDump.class, };
+
+  private static String version;
+
+  private File dir;
+  private long maxBytes;
+
+  public TokenCache(File dir, long maxBytes)
+  {
+    this.dir = dir;
+    this.maxBytes = maxBytes;
+  }
+
+  private static String hex(byte[] bytes, int n)
+  {
+    StringBuilder s = new StringBuilder(2 * n);
+    for (int i = 0; i < n; i++)
+      s.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16)).append(
+          Character.forDigit(bytes[i] & 0xf, 16));
+    return s.toString();
+  }
+
+  private static MessageDigest sha256()
+  {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new Error(e);
+    }
+  }
+
+  static synchronized String version() throws IOException
+  {
+    if (version != null)
+      return version;
+    MessageDigest md = sha256();
+    for (Token.Kind kind : Token.Kind.values())
+      md.update((kind.toString() + "\n").getBytes("UTF-8"));
+    byte[] buffer = new byte[8192];
+    for (Class<?> c : LEXER_CLASSES) {
+      String name = c.getName();
+      name = name.substring(name.lastIndexOf('.') + 1) + ".class";
+      try (InputStream in = c.getResourceAsStream(name)) {
+        if (in == null)
+          continue;
+        int n;
+        while ((n = in.read(buffer)) != -1)
+          md.update(buffer, 0, n);
+      }
+    }
+    version = hex(md.digest(), 8);
+    return version;
+  }
+
+  // the entry for the bytes of "source"
+  private File entry(MappedSource source) throws IOException
+  {
+    MessageDigest md = sha256();
+    md.update(source.buffer());
+    return new File(this.dir, hex(md.digest(), 32) + "-" + version()
+        + SUFFIX);
+  }
+
+  // The tokens of "source", from the cache if it has them, or
+  // from a lexer set up by "options" (which then adds them to the
+  // cache).
+  public TokenBuffer tokens(String fname, MappedSource source,
+      Options options)
+  {
+    File entry;
+    try {
+      entry = entry(source);
+      if (entry.isFile()) {
+        TokenBuffer tokens = BinaryTokenDump.read(new MappedSource(entry)
+            .buffer());
+        // most recently used
+        entry.setLastModified(System.currentTimeMillis());
+        return tokens;
+      }
+    } catch (IOException e) {
+      // a broken entry: lex, and overwrite it
+      entry = null;
+    }
+
+    TokenBuffer tokens = Lexer.lex(fname, source, options, null);
+    tokens.fillAll();
+    try {
+      if (entry == null)
+        entry = entry(source);
+      store(entry, tokens);
+      evict();
+    } catch (IOException e) {
+      // the cache is only an optimization
+    }
+    return tokens;
+  }
+
+  private void store(File entry, TokenBuffer tokens) throws IOException
+  {
+    this.dir.mkdirs();
+    File temp = File.createTempFile("tokens", ".tmp", this.dir);
+    try {
+      try (OutputStream out = new FileOutputStream(temp)) {
+        BinaryTokenDump dump = new BinaryTokenDump(out);
+        for (int i = 0; i < tokens.size(); i++)
+          dump.write(tokens, i);
+        dump.flush();
+      }
+      Files.move(temp.toPath(), entry.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      temp.delete();
+    }
+    return;
+  }
+
+  // delete the least recently used entries until the directory
+  // fits in its bound
+  private void evict()
+  {
+    File[] entries = this.dir.listFiles();
+    if (entries == null)
+      return;
+    long total = 0;
+    int n = 0;
+    long[] modified = new long[entries.length];
+    for (File f : entries) {
+      if (!f.getName().endsWith(SUFFIX))
+        continue;
+      total += f.length();
+      modified[n] = f.lastModified();
+      entries[n++] = f;
+    }
+    if (total <= this.maxBytes)
+      return;
+
+    final File[] files = java.util.Arrays.copyOf(entries, n);
+    final long[] times = java.util.Arrays.copyOf(modified, n);
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++)
+      order[i] = i;
+    java.util.Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b)
+      {
+        return Long.compare(times[a], times[b]);
+      }
+    });
+    for (int k = 0; k < n && total > this.maxBytes; k++) {
+      File f = files[order[k]];
+      long size = f.length();
+      if (f.delete())
+        total -= size;
+    }
+    return;
+  }
+}
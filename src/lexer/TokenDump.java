@@ -0,0 +1,124 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import lexer.Token.Kind;
+
+// Prints tokens in the format of Token.toString(), one per line,
+// for -lex, -testlexer and the parser's trace. Each token
+// is formatted straight from the columns of its TokenBuffer into
+// one reusable StringBuilder, with no Token and no intermediate
+// Strings, and the text goes out in large blocks.
+//
+// Nothing reaches the output before "flush()": whoever prints
+// anything else to the same output must flush first. An error
+// writing the output is thrown as an UncheckedIOException.
+public class TokenDump
+{
+  private static final Kind[] KINDS = Kind.values();
+  private static final String[] NAMES = new String[KINDS.length];
+  static {
+    for (int k = 0; k < KINDS.length; k++)
+      NAMES[k] = KINDS[k].toString();
+  }
+
+  private static final int BLOCK = 32 * 1024; // characters
+
+  private static TokenDump stdout;
+
+  private Writer out;
+  private StringBuilder text;
+
+  public TokenDump(OutputStream out)
+  {
+    this.out = new OutputStreamWriter(out);
+    this.text = new StringBuilder(2 * BLOCK);
+  }
+
+  // the dump on standard output, shared by everything that
+  // prints tokens there, so that their lines stay in order.
+  public static synchronized TokenDump stdout()
+  {
+    if (stdout == null)
+      stdout = new TokenDump(System.out);
+    return stdout;
+  }
+
+  // print token "i" of "tokens"
+  public void write(TokenBuffer tokens, int i)
+  {
+    StringBuilder text = this.text;
+    Kind kind = tokens.kind(i);
+    text.append(NAMES[kind.ordinal()]).append(": \t");
+    switch (kind) {
+    case TOKEN_ID: {
+      // an unexpected character has no symbol
+      Symbol symbol = tokens.symbol(i);
+      text.append((symbol == null) ? "<>" : symbol.name);
+      break;
+    }
+    case TOKEN_NUM:
+      text.append(tokens.integerValue(i));
+      break;
+    case TOKEN_REAL:
+      text.append(tokens.realValue(i));
+      break;
+    default:
+      String word = Keywords.word(kind, tokens.length(i));
+      text.append((word == null) ? "<>" : word);
+      break;
+    }
+    text.append(" \t : at line ").append(tokens.lineNum(i))
+        .append("\t : at column ");
+    int column = tokens.columnNum(i);
+    if (column == Lexer.NO_COLUMN)
+      text.append('?');
+    else
+      text.append(column);
+    text.append('\n');
+    if (text.length() >= BLOCK)
+      drain();
+    return;
+  }
+
+  // Print the parse production "name", which starts at token
+  // "first" of "tokens", in the same layout as a token.
+  public void production(String name, TokenBuffer tokens, int first)
+  {
+    StringBuilder text = this.text;
+    text.append('<').append(name).append(">: \t : at line ")
+        .append(tokens.lineNum(first)).append("\t : at column ")
+        .append(tokens.columnNum(first)).append('\n');
+    if (text.length() >= BLOCK)
+      drain();
+    return;
+  }
+
+  // pass the formatted text on to the writer
+  private void drain()
+  {
+    try {
+      this.out.append(this.text);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.text.setLength(0);
+    return;
+  }
+
+  // send everything printed so far to the output
+  public void flush()
+  {
+    drain();
+    try {
+      this.out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return;
+  }
+}
@@ -0,0 +1,134 @@
+package lexer;
+
+import java.util.concurrent.locks.LockSupport;
+
+import lexer.Token.Kind;
+
+// Runs a lexer on a thread of its own, ahead of the parser.
+//
+// The lexer thread fills batches of tokens and publishes them in
+// a bounded ring; the thread reading the token stream (through a
+// TokenBuffer) copies each batch out and hands its slot back.
+// There is exactly one producer and one consumer, so the ring
+// needs no lock: each side owns one counter, and a volatile
+// write of it publishes everything written before. A side that
+// finds the ring full (or empty) spins for a while, then yields,
+// then parks, until the other one catches up.
+//
+// The batches share the lexer's symbol table, which the consumer
+// reads while the lexer adds to it (see SymbolTable.get()).
+//
+// A reader that stops early must close() the pipe, or the lexer
+// thread waits forever for room in the ring, holding on to it.
+public class TokenPipe implements Runnable
+{
+  private static final int BATCH = 1024; // tokens per batch
+  private static final int SLOTS = 16; // a power of 2
+
+  private Lexer lexer;
+  private TokenBuffer[] ring;
+  // batches published by the lexer, and batches taken by the
+  // reader, since the start: "tail - head" are in the ring.
+  private volatile long tail;
+  private volatile long head;
+  // what stopped the lexer thread, for the reader to throw: an
+  // unchecked exception or an Error
+  private volatile Throwable failure;
+  // set by the reader when it wants no more tokens
+  private volatile boolean closed;
+
+  public TokenPipe(Lexer lexer)
+  {
+    this.lexer = lexer;
+    this.ring = new TokenBuffer[SLOTS];
+    for (int i = 0; i < SLOTS; i++)
+      this.ring[i] = new TokenBuffer(lexer.symbols());
+    this.tail = 0;
+    this.head = 0;
+    this.closed = false;
+  }
+
+  // Start lexing, and return the token stream, which fills as
+  // the parser reads it.
+  public static TokenBuffer start(Lexer lexer)
+  {
+    TokenPipe pipe = new TokenPipe(lexer);
+    Thread thread = new Thread(pipe, "lexer");
+    thread.setDaemon(true);
+    thread.start();
+    return new TokenBuffer(pipe, lexer.symbols());
+  }
+
+  // wait a little longer each time, "spins" counting the waits
+  private static void pause(int spins)
+  {
+    if (spins < 100)
+      Thread.onSpinWait();
+    else if (spins < 1000)
+      Thread.yield();
+    else
+      LockSupport.parkNanos(50 * 1000);
+    return;
+  }
+
+  // the lexer thread
+  @Override
+  public void run()
+  {
+    long t = 0;
+    Kind kind;
+    try {
+      do {
+        for (int spins = 0; t - this.head == SLOTS; spins++) {
+          if (this.closed)
+            break;
+          pause(spins);
+        }
+        if (this.closed) {
+          // let the batches go with this thread
+          this.ring = null;
+          return;
+        }
+        TokenBuffer batch = this.ring[(int) t & (SLOTS - 1)];
+        batch.clear();
+        do {
+          kind = this.lexer.nextToken(batch);
+        } while (kind != Kind.TOKEN_EOF && batch.size() < BATCH);
+        this.tail = ++t;
+      } while (kind != Kind.TOKEN_EOF);
+    } catch (Throwable e) {
+      this.failure = e;
+    }
+    return;
+  }
+
+  // Called by the reader when it wants no more tokens: the lexer
+  // thread stops at its next batch. Reading past the tokens taken
+  // so far is then an IllegalStateException.
+  void close()
+  {
+    this.closed = true;
+    return;
+  }
+
+  // Called by the reader: wait for the next batch and append it
+  // to "tokens". If the lexer failed instead, throw what it threw.
+  void take(TokenBuffer tokens)
+  {
+    long h = this.head;
+    for (int spins = 0; h == this.tail; spins++) {
+      Throwable failure = this.failure;
+      if (failure instanceof Error)
+        throw (Error) failure;
+      if (failure != null)
+        throw (RuntimeException) failure;
+      if (this.closed)
+        throw new IllegalStateException("the token pipe is closed");
+      pause(spins);
+    }
+    TokenBuffer batch = this.ring[(int) h & (SLOTS - 1)];
+    tokens.append(batch, 0, batch.size(), 0, 0);
+    this.head = h + 1;
+    return;
+  }
+}
@@ -0,0 +1,391 @@
+package parser;
+
+import lexer.TokenBuffer;
+
+// The abstract syntax tree of a program, kept in an arena: a node
+// is an int id, and its fields live in parallel arrays indexed by
+// that id, instead of in one object per node. Children are linked
+// first-child/next-sibling, so walking the tree allocates nothing.
+//
+// A node points into the token stream rather than copying from
+// it: "token(n)" is the token that names the node (the identifier
+// of a declaration, call or assignment, the literal of a constant,
+// the operator of an operation), and the node covers the tokens
+// "firstToken(n)" to "lastToken(n)". Names, symbols and literal
+// values are read from "tokens()".
+//
+// Memory: a node takes 1 + 5 * 4 = 21 bytes. The arrays grow by
+// doubling, so they reserve at most 42 bytes per node while the
+// tree is built; "trim()" gives the slack back.
+//
+// Nodes are created children first, so a parent's id is always
+// greater than its children's, and the root is the last node,
+// until an incremental reparse (see IncrementalParser) appends new
+// subtrees in place of old ones.
+public class Ast
+{
+  public static final int NONE = -1;
+
+  // node kinds, with their token and children:
+  // Program: children the main class, then the classes
+  public static final int PROGRAM = 0;
+  // token the class name; children the "String[] args" FORMAL,
+  // then the statement
+  public static final int MAIN_CLASS = 1;
+  // token the class name; children an EXTENDS if there is one,
+  // the VAR_DECLs, then the METHODs
+  public static final int CLASS = 2;
+  // token the superclass name
+  public static final int EXTENDS = 3;
+  // token the variable name; child the type
+  public static final int VAR_DECL = 4;
+  // token the method name; children the return type, the
+  // FORMALs, the VAR_DECLs, the statements, then the returned
+  // expression
+  public static final int METHOD = 5;
+  // token the parameter name; child the type
+  public static final int FORMAL = 6;
+  // types; TYPE_CLASS has the class name as its token
+  public static final int TYPE_INT = 7;
+  public static final int TYPE_INT_ARRAY = 8;
+  public static final int TYPE_BOOLEAN = 9;
+  public static final int TYPE_CLASS = 10;
+  public static final int TYPE_STRING_ARRAY = 11;
+  // statements
+  public static final int BLOCK = 12; // children the statements
+  public static final int IF = 13; // condition, then, else
+  public static final int WHILE = 14; // condition, body
+  public static final int PRINT = 15; // the expression
+  // token the variable; child the value
+  public static final int ASSIGN = 16;
+  // token the array variable; children the index, the value
+  public static final int ARRAY_ASSIGN = 17;
+  // expressions; binary operations have the operator as their
+  // token, and the two operands as children
+  public static final int AND = 18;
+  public static final int LT = 19;
+  public static final int ADD = 20;
+  public static final int SUB = 21;
+  public static final int TIMES = 22;
+  public static final int NOT = 23; // the operand
+  public static final int ARRAY_GET = 24; // the array, the index
+  public static final int LENGTH = 25; // the array
+  // token the method name; children the receiver, then the
+  // arguments
+  public static final int CALL = 26;
+  public static final int NUM = 27; // token the literal
+  public static final int TRUE = 28;
+  public static final int FALSE = 29;
+  public static final int THIS = 30;
+  public static final int ID = 31; // token the identifier
+  public static final int NEW_INT_ARRAY = 32; // the size
+  public static final int NEW_OBJECT = 33; // token the class name
+  // a method body left unparsed by a skimming parser (see
+  // Parser.skim()): it covers the statements and the return, and
+  // parseBody() replaces it with their nodes
+  public static final int BODY = 34;
+
+  private static final String[] NAMES = { "Program", "MainClass", "Class",
+      "Extends", "VarDecl", "Method", "Formal", "int", "int[]", "boolean",
+      "ClassType", "String[]", "Block", "If", "While", "Print", "Assign",
+      "ArrayAssign", "And", "Lt", "Add", "Sub", "Times", "Not", "ArrayGet",
+      "Length", "Call", "Num", "True", "False", "This", "Id", "NewIntArray",
+      "NewObject", "Body", };
+
+  private TokenBuffer tokens;
+  private int count;
+  private int root; // the PROGRAM node, or NONE
+  private byte[] kinds;
+  private int[] nodeTokens;
+  private int[] firstChildren;
+  private int[] nextSiblings;
+  private int[] firstTokens;
+  private int[] lastTokens;
+  private Parser bodies; // the parser of the BODY nodes, or null
+
+  public Ast(TokenBuffer tokens)
+  {
+    this.tokens = tokens;
+    this.count = 0;
+    this.root = NONE;
+    this.kinds = new byte[1024];
+    this.nodeTokens = new int[1024];
+    this.firstChildren = new int[1024];
+    this.nextSiblings = new int[1024];
+    this.firstTokens = new int[1024];
+    this.lastTokens = new int[1024];
+  }
+
+  private void resize(int n)
+  {
+    this.kinds = java.util.Arrays.copyOf(this.kinds, n);
+    this.nodeTokens = java.util.Arrays.copyOf(this.nodeTokens, n);
+    this.firstChildren = java.util.Arrays.copyOf(this.firstChildren, n);
+    this.nextSiblings = java.util.Arrays.copyOf(this.nextSiblings, n);
+    this.firstTokens = java.util.Arrays.copyOf(this.firstTokens, n);
+    this.lastTokens = java.util.Arrays.copyOf(this.lastTokens, n);
+    return;
+  }
+
+  // Add a node and return its id. "firstChild" heads the list of
+  // its children, already linked with "link()".
+  int add(int kind, int token, int firstChild, int firstToken,
+      int lastToken)
+  {
+    if (this.count == this.kinds.length)
+      resize(2 * this.count);
+    int n = this.count++;
+    this.kinds[n] = (byte) kind;
+    this.nodeTokens[n] = token;
+    this.firstChildren[n] = firstChild;
+    this.nextSiblings[n] = NONE;
+    this.firstTokens[n] = firstToken;
+    this.lastTokens[n] = lastToken;
+    if (kind == PROGRAM)
+      this.root = n;
+    return n;
+  }
+
+  // Append the nodes of "part", a tree over the same tokens, and
+  // return the number added to their ids.
+  int append(Ast part)
+  {
+    int offset = this.count;
+    int n = part.count;
+    if (offset + n > this.kinds.length)
+      resize(Math.max(2 * this.kinds.length, offset + n));
+    System.arraycopy(part.kinds, 0, this.kinds, offset, n);
+    System.arraycopy(part.nodeTokens, 0, this.nodeTokens, offset, n);
+    System.arraycopy(part.firstTokens, 0, this.firstTokens, offset, n);
+    System.arraycopy(part.lastTokens, 0, this.lastTokens, offset, n);
+    for (int i = 0; i < n; i++) {
+      int c = part.firstChildren[i], s = part.nextSiblings[i];
+      this.firstChildren[offset + i] = (c == NONE) ? NONE : c + offset;
+      this.nextSiblings[offset + i] = (s == NONE) ? NONE : s + offset;
+    }
+    this.count += n;
+    return offset;
+  }
+
+  // make "next" the sibling after "n"
+  void link(int n, int next)
+  {
+    this.nextSiblings[n] = next;
+    return;
+  }
+
+  // Put the list headed by "replacement" (NONE for none) in the
+  // place of "n" among the children of "parent".
+  void replace(int parent, int n, int replacement)
+  {
+    int head = this.nextSiblings[n];
+    if (replacement != NONE) {
+      int last = replacement;
+      while (this.nextSiblings[last] != NONE)
+        last = this.nextSiblings[last];
+      this.nextSiblings[last] = head;
+      head = replacement;
+    }
+    if (this.firstChildren[parent] == n) {
+      this.firstChildren[parent] = head;
+      return;
+    }
+    int c = this.firstChildren[parent];
+    while (this.nextSiblings[c] != n)
+      c = this.nextSiblings[c];
+    this.nextSiblings[c] = head;
+    return;
+  }
+
+  // the BODY nodes are to be parsed by "parser"
+  void deferBodies(Parser parser)
+  {
+    this.bodies = parser;
+    return;
+  }
+
+  // Parse the body of "method" if it was skimmed, which gives it
+  // the children it would have had after a full parse, if the body
+  // has no syntax errors. Syntax errors in it are added to the
+  // diagnostics of the parser (see TigerCompiler.Result.skimmed).
+  public void parseBody(int method)
+  {
+    for (int c = this.firstChildren[method]; c != NONE; c = this.nextSiblings[c])
+      if (this.kinds[c] == BODY) {
+        this.bodies.parseBody(method, c);
+        return;
+      }
+    return;
+  }
+
+  // parse the bodies of all the methods that were skimmed
+  public void parseBodies()
+  {
+    for (int c = this.firstChildren[root()]; c != NONE; c = this.nextSiblings[c])
+      if (this.kinds[c] == CLASS)
+        for (int m = this.firstChildren[c]; m != NONE; m = this.nextSiblings[m])
+          if (this.kinds[m] == METHOD)
+            parseBody(m);
+    return;
+  }
+
+  // The tree is now over "tokens", in which the old token "i" is
+  // at "i + delta" if "i >= from", and unchanged otherwise.
+  void shift(TokenBuffer tokens, int from, int delta)
+  {
+    this.tokens = tokens;
+    if (delta == 0)
+      return;
+    for (int n = 0; n < this.count; n++) {
+      if (this.nodeTokens[n] >= from)
+        this.nodeTokens[n] += delta;
+      if (this.firstTokens[n] >= from)
+        this.firstTokens[n] += delta;
+      if (this.lastTokens[n] >= from)
+        this.lastTokens[n] += delta;
+    }
+    return;
+  }
+
+  // the number of nodes in the subtree at "n", counted without
+  // recursion, as the tree may be very deep
+  int subtreeSize(int n)
+  {
+    int size = 0;
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = n;
+    while (top > 0) {
+      int m = stack[--top];
+      size++;
+      for (int c = this.firstChildren[m]; c != NONE; c = this.nextSiblings[c]) {
+        if (top == stack.length)
+          stack = java.util.Arrays.copyOf(stack, 2 * top);
+        stack[top++] = c;
+      }
+    }
+    return size;
+  }
+
+  // drop the unused capacity, once the tree is complete
+  public void trim()
+  {
+    resize(Math.max(this.count, 1));
+    return;
+  }
+
+  // the number of nodes
+  public int size()
+  {
+    return this.count;
+  }
+
+  public int root()
+  {
+    return (this.root == NONE) ? this.count - 1 : this.root;
+  }
+
+  public TokenBuffer tokens()
+  {
+    return this.tokens;
+  }
+
+  public int kind(int n)
+  {
+    return this.kinds[n];
+  }
+
+  public int token(int n)
+  {
+    return this.nodeTokens[n];
+  }
+
+  // the first child of "n", or NONE
+  public int firstChild(int n)
+  {
+    return this.firstChildren[n];
+  }
+
+  // the sibling after "n", or NONE
+  public int nextSibling(int n)
+  {
+    return this.nextSiblings[n];
+  }
+
+  public int firstToken(int n)
+  {
+    return this.firstTokens[n];
+  }
+
+  public int lastToken(int n)
+  {
+    return this.lastTokens[n];
+  }
+
+  // child "k" of "n", counting from 0, or NONE
+  public int child(int n, int k)
+  {
+    int c = this.firstChildren[n];
+    while (k-- > 0 && c != NONE)
+      c = this.nextSiblings[c];
+    return c;
+  }
+
+  // the bytes the arrays take now
+  public long bytes()
+  {
+    return (long) this.kinds.length * (1 + 5 * 4);
+  }
+
+  public static String kindName(int kind)
+  {
+    return NAMES[kind];
+  }
+
+  // the subtree at "n" as an S-expression, for debugging. It is
+  // walked on a stack in the heap, like subtreeSize(), so that
+  // deep trees do not overflow the thread's stack: each entry is
+  // the next child to print at its depth, or NONE to close it.
+  public String toString(int n)
+  {
+    StringBuilder s = new StringBuilder();
+    int[] stack = new int[64];
+    int top = 0;
+    open(n, s);
+    stack[top++] = this.firstChildren[n];
+    while (top > 0) {
+      int c = stack[top - 1];
+      if (c == NONE) {
+        s.append(')');
+        top--;
+        continue;
+      }
+      stack[top - 1] = this.nextSiblings[c];
+      s.append(' ');
+      open(c, s);
+      if (top == stack.length)
+        stack = java.util.Arrays.copyOf(stack, 2 * top);
+      stack[top++] = this.firstChildren[c];
+    }
+    return s.toString();
+  }
+
+  // the start of "n" in toString(): its kind, and its lexeme
+  private void open(int n, StringBuilder s)
+  {
+    s.append('(').append(NAMES[this.kinds[n]]);
+    int t = this.nodeTokens[n];
+    if (t != NONE) {
+      String lexeme = this.tokens.lexeme(t);
+      if (lexeme != null)
+        s.append(' ').append(lexeme);
+    }
+    return;
+  }
+
+  @Override
+  public String toString()
+  {
+    return toString(root());
+  }
+}
@@ -0,0 +1,143 @@
+package parser;
+
+import java.util.List;
+
+import control.Options;
+import lexer.IncrementalLexer;
+import lexer.Lexer;
+import lexer.MappedSource;
+import lexer.TokenBuffer;
+import util.Diagnostic;
+
+// Keeps the parse of a source up to date as it is edited.
+//
+// An edit is re-lexed in place with IncrementalLexer, which tells
+// which tokens changed. The parser decides on token kinds alone,
+// so if the kinds did not change, neither does the tree, which
+// reads names and values from the updated tokens. Otherwise only
+// the innermost method, class or main class around the changed
+// tokens is parsed again, into the same arena, and its new node
+// takes the place of the old one; everything else in the tree is
+// kept as it is. The tokens around such a unit are the same
+// before and after the edit, so if the new unit parses without
+// errors and ends at the same token as before, the tree is the
+// one a full parse of the new text would give (with other node
+// ids). In any other case (an edit across units, a syntax error
+// before or after it, a unit that now ends elsewhere) the whole
+// token stream is parsed again.
+//
+// The replaced subtrees stay in the arena, unlinked; once they
+// would take up half of it, the edit parses everything again into
+// a fresh one.
+public class IncrementalParser
+{
+  private String fname;
+  private TokenBuffer tokens;
+  private Ast ast;
+  private List<Diagnostic> diagnostics;
+  private int garbage; // nodes of the arena no longer in the tree
+
+  public IncrementalParser(String fname, MappedSource source)
+  {
+    this.fname = fname;
+    this.tokens = Lexer.tokenize(fname, source);
+    parseAll();
+  }
+
+  private void parseAll()
+  {
+    Parser parser = new Parser(this.fname, this.tokens, Options.DEFAULT);
+    this.ast = parser.parse();
+    this.diagnostics = parser.diagnostics();
+    this.garbage = 0;
+    return;
+  }
+
+  // the tree of the current text
+  public Ast ast()
+  {
+    return this.ast;
+  }
+
+  // the tokens of the current text; the same buffer all along,
+  // updated by each edit
+  public TokenBuffer tokens()
+  {
+    return this.tokens;
+  }
+
+  // the syntax errors of the current text
+  public List<Diagnostic> diagnostics()
+  {
+    return this.diagnostics;
+  }
+
+  // does the unit "n" contain the changed tokens, and the tokens
+  // on either side of them?
+  private boolean contains(int n, IncrementalLexer.Edit edit)
+  {
+    return this.ast.firstToken(n) < edit.first
+        && edit.oldEnd <= this.ast.lastToken(n);
+  }
+
+  // Update the parse for an edit of the text: "text" is the text
+  // before it with the "oldLength" bytes at "offset" replaced by
+  // "newLength" bytes. Return the kind of node that was parsed
+  // again: Ast.METHOD, Ast.CLASS or Ast.MAIN_CLASS, Ast.PROGRAM
+  // for the whole text, or Ast.NONE if the tree did not change.
+  public int edit(MappedSource text, int offset, int oldLength,
+      int newLength)
+  {
+    IncrementalLexer.Edit edit = IncrementalLexer.update(this.fname,
+        this.tokens, text, offset, oldLength, newLength);
+    int delta = edit.newEnd - edit.oldEnd;
+
+    // the same kinds: the same tree, over the new tokens
+    if (edit.sameKinds && this.diagnostics.isEmpty())
+      return Ast.NONE;
+
+    // the innermost unit around the edit, and its parent
+    int parent = Ast.NONE, unit = Ast.NONE;
+    if (this.diagnostics.isEmpty()) {
+      int program = this.ast.root();
+      for (int c = this.ast.firstChild(program); c != Ast.NONE; c = this.ast
+          .nextSibling(c))
+        if (contains(c, edit)) {
+          parent = program;
+          unit = c;
+          break;
+        }
+      if (unit != Ast.NONE && this.ast.kind(unit) == Ast.CLASS)
+        for (int c = this.ast.firstChild(unit); c != Ast.NONE; c = this.ast
+            .nextSibling(c))
+          if (this.ast.kind(c) == Ast.METHOD && contains(c, edit)) {
+            parent = unit;
+            unit = c;
+            break;
+          }
+    }
+    if (unit == Ast.NONE) {
+      parseAll();
+      return Ast.PROGRAM;
+    }
+    int size = this.ast.subtreeSize(unit);
+    if (2 * (this.garbage + size) > this.ast.size()) {
+      parseAll();
+      return Ast.PROGRAM;
+    }
+
+    int kind = this.ast.kind(unit);
+    int last = this.ast.lastToken(unit) + delta;
+    this.ast.shift(this.tokens, edit.oldEnd, delta);
+    Parser parser = new Parser(this.fname, this.tokens, this.ast,
+        this.ast.firstToken(unit));
+    int n = parser.parseUnit(kind);
+    if (n == Ast.NONE || parser.last() != last) {
+      parseAll();
+      return Ast.PROGRAM;
+    }
+    this.ast.replace(parent, unit, n);
+    this.garbage += size;
+    return kind;
+  }
+}
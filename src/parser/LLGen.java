@@ -0,0 +1,549 @@
+package parser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lexer.Token.Kind;
+
+// Makes the tables of LLParser from a grammar (see MiniJava.grammar
+// for the notation):
+//
+//   java parser.LLGen <grammar> <LLTables.java>
+//
+// It computes which nonterminals derive the empty string, and the
+// FIRST and FOLLOW sets of the nonterminals as masks of Kind
+// ordinals (there are fewer than 64 kinds), then the tokens that
+// predict each production: those of FIRST of its right hand side,
+// and those of FOLLOW of its left hand side when the right hand
+// side may derive nothing. Two productions of a nonterminal
+// predicted by the same token make the grammar not LL(1), and are
+// reported instead of tables.
+//
+// The table the parser runs on gives, for a nonterminal and a token,
+// not just the production predicted but all it expands to up to
+// that token (see expand()), so that the chains of rules an
+// expression goes through cost one step instead of one per rule.
+// In the tables, a grammar symbol is an int: a terminal is its
+// Kind ordinal, nonterminal n is TERMINALS + n, action a is
+// ACTIONS + a, and a silent terminal (one not traced) is SILENT plus
+// its Kind ordinal.
+public class LLGen
+{
+  private static final int TERMINALS = Kind.values().length;
+  // a silent terminal, until all the nonterminals and actions are
+  // known
+  private static final int MARK = 1 << 16;
+
+  private String file;
+  private List<String> nonterminals = new ArrayList<String>();
+  private Map<String, Integer> nonterminalIds = new HashMap<String, Integer>();
+  private List<String> actions = new ArrayList<String>();
+  private Map<String, Integer> actionIds = new HashMap<String, Integer>();
+  // the productions: their left hand sides, and their right hand
+  // sides, with nonterminals as -1 - n, actions as TERMINALS + a
+  // and silent terminals as MARK + k until all the nonterminals are
+  // known
+  private List<Integer> lefts = new ArrayList<Integer>();
+  private List<int[]> rights = new ArrayList<int[]>();
+  // line of each nonterminal's first use, to report the undefined
+  private Map<String, Integer> used = new HashMap<String, Integer>();
+  // the first silent terminal
+  private int silentStart;
+
+  private boolean[] nullable;
+  private long[] first;
+  private long[] follow;
+  private long[] predict;
+
+  // thrown for a bad grammar, with a message for its author
+  static class GrammarError extends RuntimeException
+  {
+    private static final long serialVersionUID = 1L;
+
+    GrammarError(String message)
+    {
+      super(message);
+    }
+  }
+
+  LLGen(String file, String text)
+  {
+    this.file = file;
+    if (TERMINALS > 64)
+      throw new GrammarError("the token kinds no longer fit in a long");
+    read(text);
+    analyze();
+  }
+
+  // /////////////////////////////////////////////
+  // reading the grammar
+
+  // the words of the grammar, and the line each is on
+  private List<String> words = new ArrayList<String>();
+  private List<Integer> lines = new ArrayList<Integer>();
+
+  private void split(String text)
+  {
+    int line = 1;
+    int i = 0, n = text.length();
+    while (i < n) {
+      char c = text.charAt(i);
+      if (c == '\n') {
+        line++;
+        i++;
+      } else if (Character.isWhitespace(c))
+        i++;
+      else if (c == '/' && i + 1 < n && text.charAt(i + 1) == '/') {
+        while (i < n && text.charAt(i) != '\n')
+          i++;
+      } else if (c == '|' || c == ';') {
+        words.add(String.valueOf(c));
+        lines.add(line);
+        i++;
+      } else {
+        int start = i;
+        while (i < n && !Character.isWhitespace(text.charAt(i))
+            && text.charAt(i) != '|' && text.charAt(i) != ';')
+          i++;
+        words.add(text.substring(start, i));
+        lines.add(line);
+      }
+    }
+    return;
+  }
+
+  private GrammarError error(int line, String message)
+  {
+    return new GrammarError(file + ":" + line + ": " + message);
+  }
+
+  private int nonterminal(String name)
+  {
+    Integer id = nonterminalIds.get(name);
+    if (id == null) {
+      id = nonterminals.size();
+      nonterminals.add(name);
+      nonterminalIds.put(name, id);
+    }
+    return id;
+  }
+
+  private static boolean isTerminal(String word)
+  {
+    for (int i = 0; i < word.length(); i++)
+      if (Character.isLowerCase(word.charAt(i)))
+        return false;
+    return true;
+  }
+
+  private void read(String text)
+  {
+    split(text);
+    List<Integer> defined = new ArrayList<Integer>();
+    int k = 0;
+    while (k < words.size()) {
+      String name = words.get(k);
+      int line = lines.get(k);
+      if (isTerminal(name) || name.startsWith("@") || name.equals("|")
+          || name.equals(";"))
+        throw error(line, "expects the name of a nonterminal, but got "
+            + name);
+      if (k + 1 == words.size() || !words.get(k + 1).equals("->"))
+        throw error(line, "expects -> after " + name);
+      int left = nonterminal(name);
+      if (defined.contains(left))
+        throw error(line, name + " is defined twice");
+      defined.add(left);
+      k += 2;
+
+      List<Integer> right = new ArrayList<Integer>();
+      while (true) {
+        if (k == words.size())
+          throw error(lines.get(k - 1), "expects ; at the end of " + name);
+        String word = words.get(k++);
+        if (word.equals("|") || word.equals(";")) {
+          int[] symbols = new int[right.size()];
+          for (int i = 0; i < symbols.length; i++)
+            symbols[i] = right.get(i);
+          lefts.add(left);
+          rights.add(symbols);
+          right.clear();
+          if (word.equals(";"))
+            break;
+        } else if (word.equals("->"))
+          throw error(lines.get(k - 1), "expects ; at the end of " + name);
+        else if (word.startsWith("@")) {
+          String action = word.substring(1);
+          Integer id = actionIds.get(action);
+          if (id == null) {
+            id = actions.size();
+            actions.add(action);
+            actionIds.put(action, id);
+          }
+          right.add(TERMINALS + id);
+        } else if (isTerminal(word)) {
+          boolean silent = word.startsWith("~");
+          if (silent)
+            word = word.substring(1);
+          Kind kind;
+          try {
+            kind = Kind.valueOf("TOKEN_" + word);
+          } catch (IllegalArgumentException e) {
+            throw error(lines.get(k - 1), "no token kind TOKEN_" + word);
+          }
+          right.add((silent ? MARK : 0) + kind.ordinal());
+        } else {
+          if (!used.containsKey(word))
+            used.put(word, lines.get(k - 1));
+          right.add(-1 - nonterminal(word));
+        }
+      }
+    }
+    if (lefts.isEmpty())
+      throw error(1, "no rules");
+    for (int n = 0; n < nonterminals.size(); n++)
+      if (!defined.contains(n))
+        throw error(used.get(nonterminals.get(n)), nonterminals.get(n)
+            + " is never defined");
+
+    // now that the number of nonterminals is known
+    int actionsStart = TERMINALS + nonterminals.size();
+    silentStart = actionsStart + actions.size();
+    for (int[] symbols : rights)
+      for (int i = 0; i < symbols.length; i++)
+        if (symbols[i] < 0)
+          symbols[i] = TERMINALS + (-1 - symbols[i]);
+        else if (symbols[i] >= MARK)
+          symbols[i] = silentStart + (symbols[i] - MARK);
+        else if (symbols[i] >= TERMINALS)
+          symbols[i] = actionsStart + (symbols[i] - TERMINALS);
+    return;
+  }
+
+  // /////////////////////////////////////////////
+  // FIRST, FOLLOW and the prediction sets
+
+  private boolean isNonterminal(int symbol)
+  {
+    return symbol >= TERMINALS && symbol < TERMINALS + nonterminals.size();
+  }
+
+  private boolean isAction(int symbol)
+  {
+    return symbol >= TERMINALS + nonterminals.size() && symbol < silentStart;
+  }
+
+  // the Kind ordinal of terminal "symbol", silent or not
+  private int kind(int symbol)
+  {
+    return (symbol >= silentStart) ? symbol - silentStart : symbol;
+  }
+
+  // FIRST of symbols[from..], into "set"; returns whether they may
+  // all derive nothing
+  private boolean first(int[] symbols, int from, long[] set)
+  {
+    for (int i = from; i < symbols.length; i++) {
+      int s = symbols[i];
+      if (isAction(s))
+        continue;
+      if (!isNonterminal(s)) {
+        set[0] |= 1L << kind(s);
+        return false;
+      }
+      set[0] |= first[s - TERMINALS];
+      if (!nullable[s - TERMINALS])
+        return false;
+    }
+    return true;
+  }
+
+  private void analyze()
+  {
+    int n = nonterminals.size();
+    nullable = new boolean[n];
+    first = new long[n];
+    follow = new long[n];
+    long[] set = new long[1];
+
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int p = 0; p < lefts.size(); p++) {
+        int a = lefts.get(p);
+        set[0] = first[a];
+        boolean empty = first(rights.get(p), 0, set);
+        if (set[0] != first[a] || (empty && !nullable[a])) {
+          first[a] = set[0];
+          nullable[a] |= empty;
+          changed = true;
+        }
+      }
+    }
+
+    follow[0] |= 1L << Kind.TOKEN_EOF.ordinal();
+    changed = true;
+    while (changed) {
+      changed = false;
+      for (int p = 0; p < lefts.size(); p++) {
+        int a = lefts.get(p);
+        int[] symbols = rights.get(p);
+        for (int i = 0; i < symbols.length; i++) {
+          if (!isNonterminal(symbols[i]))
+            continue;
+          int b = symbols[i] - TERMINALS;
+          set[0] = follow[b];
+          if (first(symbols, i + 1, set))
+            set[0] |= follow[a];
+          if (set[0] != follow[b]) {
+            follow[b] = set[0];
+            changed = true;
+          }
+        }
+      }
+    }
+
+    predict = new long[lefts.size()];
+    for (int p = 0; p < lefts.size(); p++) {
+      set[0] = 0;
+      if (first(rights.get(p), 0, set))
+        set[0] |= follow[lefts.get(p)];
+      predict[p] = set[0];
+    }
+
+    StringBuilder conflicts = new StringBuilder();
+    for (int p = 0; p < lefts.size(); p++)
+      for (int q = p + 1; q < lefts.size(); q++)
+        if (lefts.get(p).equals(lefts.get(q)) && (predict[p] & predict[q]) != 0)
+          conflicts.append("\n  ").append(production(p)).append("\n  ")
+              .append(production(q)).append("\n    both on ")
+              .append(LLParser.kinds(predict[p] & predict[q]));
+    if (conflicts.length() > 0)
+      throw new GrammarError(file + ": not LL(1):" + conflicts);
+
+    table = new int[n * TERMINALS];
+    java.util.Arrays.fill(table, -1);
+    for (int p = 0; p < lefts.size(); p++)
+      for (int k = 0; k < TERMINALS; k++)
+        if ((predict[p] & (1L << k)) != 0)
+          table[lefts.get(p) * TERMINALS + k] = p;
+    return;
+  }
+
+  // the production for nonterminal n on a token of kind k is
+  // table[n * TERMINALS + k], or -1
+  private int[] table;
+
+  // Add to "expansion" what nonterminal "n" expands to on a token
+  // of kind "k" before that token is eaten: the right hand side of
+  // the production predicted, with the nonterminals in front of the
+  // first terminal expanded in turn, as the parser would with "k"
+  // as the current token. Returns whether the expansion reaches
+  // that terminal (which is then "k").
+  private boolean expand(int n, int k, List<Integer> expansion)
+  {
+    boolean reached = false;
+    for (int s : rights.get(table[n * TERMINALS + k])) {
+      if (!reached && isNonterminal(s)
+          && table[(s - TERMINALS) * TERMINALS + k] >= 0)
+        reached = expand(s - TERMINALS, k, expansion);
+      else {
+        expansion.add(s);
+        reached |= !isAction(s);
+      }
+    }
+    return reached;
+  }
+
+  private String symbol(int s)
+  {
+    if (isAction(s))
+      return "@" + actions.get(s - TERMINALS - nonterminals.size());
+    if (isNonterminal(s))
+      return nonterminals.get(s - TERMINALS);
+    return ((s >= silentStart) ? "~" : "")
+        + Kind.values()[kind(s)].toString().substring("TOKEN_".length());
+  }
+
+  // production "p", as in the grammar
+  private String production(int p)
+  {
+    StringBuilder s = new StringBuilder(nonterminals.get(lefts.get(p)));
+    s.append(" ->");
+    for (int symbol : rights.get(p))
+      s.append(' ').append(symbol(symbol));
+    return s.toString();
+  }
+
+  // /////////////////////////////////////////////
+  // writing the tables
+
+  // "name" as a constant: action "arrayGet" is "A_ARRAY_GET", and
+  // nonterminal "ClassDecls" is "N_CLASS_DECLS"
+  private static String constant(String prefix, String name)
+  {
+    StringBuilder s = new StringBuilder(prefix);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isUpperCase(c) && i > 0)
+        s.append('_');
+      s.append(Character.toUpperCase(c));
+    }
+    return s.toString();
+  }
+
+  // print "type[] name = { values };", wrapped
+  private static void array(PrintWriter out, String type, String name,
+      List<String> values)
+  {
+    StringBuilder line = new StringBuilder("  static final " + type + "[] "
+        + name + " = {");
+    for (String value : values) {
+      if (line.length() + value.length() + 2 > 78) {
+        out.println(line);
+        line = new StringBuilder("     ");
+      }
+      line.append(' ').append(value).append(',');
+    }
+    out.println(line + " };");
+    return;
+  }
+
+  void write(PrintWriter out)
+  {
+    int n = nonterminals.size();
+    String grammar = Paths.get(file).getFileName().toString();
+    out.println("package parser;");
+    out.println();
+    out.println("// The LL(1) tables of " + grammar
+        + ", made by LLGen: do not edit,");
+    out.println("// change the grammar and run LLGen again.");
+    out.println("final class LLTables");
+    out.println("{");
+    out.println("  // grammar symbols: a terminal is its Kind ordinal, nonterminal");
+    out.println("  // n is TERMINALS + n, action a is ACTIONS + a, and a silent");
+    out.println("  // terminal, eaten without being traced, is SILENT plus its Kind");
+    out.println("  // ordinal");
+    out.println("  static final int TERMINALS = " + TERMINALS + ";");
+    out.println("  static final int NONTERMINALS = " + n + ";");
+    out.println("  static final int ACTIONS = TERMINALS + NONTERMINALS;");
+    out.println("  static final int SILENT = ACTIONS + " + actions.size() + ";");
+    out.println("  // the start symbol");
+    out.println("  static final int START = TERMINALS;");
+    out.println();
+
+    out.println("  // nonterminals");
+    for (int i = 0; i < n; i++)
+      out.println("  static final int " + constant("N_", nonterminals.get(i))
+          + " = " + i + ";");
+    out.println();
+
+    out.println("  // actions");
+    for (int a = 0; a < actions.size(); a++)
+      out.println("  static final int " + constant("A_", actions.get(a))
+          + " = " + a + ";");
+    out.println();
+
+    List<String> values = new ArrayList<String>();
+    for (String name : nonterminals)
+      values.add("\"" + name + "\"");
+    array(out, "String", "NAMES", values);
+    out.println();
+
+    out.println("  // the productions");
+    for (int p = 0; p < lefts.size(); p++) {
+      // wrapped at the words
+      StringBuilder line = new StringBuilder("  // " + p + ":");
+      for (String word : production(p).split(" ")) {
+        if (line.length() + word.length() + 1 > 78) {
+          out.println(line);
+          line = new StringBuilder("  //    ");
+        }
+        line.append(' ').append(word);
+      }
+      out.println(line);
+    }
+    out.println();
+
+    // the expansions, each stored once
+    out.println("  // what nonterminal n is replaced with on a token of kind k, in");
+    out.println("  // one step: the production predicted, with the nonterminals in");
+    out.println("  // front of its first terminal replaced in turn. It starts at");
+    out.println("  // EXPANSIONS[PREDICT[n * TERMINALS + k]] (-1 for a syntax");
+    out.println("  // error) with its length, then its symbols reversed, so that");
+    out.println("  // they are pushed in the order they are stored.");
+    List<Integer> expansions = new ArrayList<Integer>();
+    Map<List<Integer>, Integer> offsets = new HashMap<List<Integer>, Integer>();
+    values.clear();
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] < 0) {
+        values.add("-1");
+        continue;
+      }
+      List<Integer> expansion = new ArrayList<Integer>();
+      expand(i / TERMINALS, i % TERMINALS, expansion);
+      Integer offset = offsets.get(expansion);
+      if (offset == null) {
+        offset = expansions.size();
+        offsets.put(expansion, offset);
+        expansions.add(expansion.size());
+        for (int j = expansion.size() - 1; j >= 0; j--)
+          expansions.add(expansion.get(j));
+      }
+      values.add(String.valueOf(offset));
+    }
+    array(out, "int", "PREDICT", values);
+    values.clear();
+    for (int symbol : expansions)
+      values.add(String.valueOf(symbol));
+    array(out, "int", "EXPANSIONS", values);
+    out.println();
+
+    out.println("  // by nonterminal: whether it may derive nothing, and its FIRST");
+    out.println("  // and FOLLOW sets, as masks of Kind ordinals");
+    values.clear();
+    for (boolean b : nullable)
+      values.add(String.valueOf(b));
+    array(out, "boolean", "NULLABLE", values);
+    values.clear();
+    for (long set : first)
+      values.add("0x" + Long.toHexString(set) + "L");
+    array(out, "long", "FIRST", values);
+    values.clear();
+    for (long set : follow)
+      values.add("0x" + Long.toHexString(set) + "L");
+    array(out, "long", "FOLLOW", values);
+    out.println("}");
+    return;
+  }
+
+  public static void main(String[] args) throws IOException
+  {
+    if (args.length != 2) {
+      System.out.println("Usage: java parser.LLGen <grammar> <LLTables.java>");
+      System.exit(1);
+    }
+    String text = new String(Files.readAllBytes(Paths.get(args[0])),
+        StandardCharsets.UTF_8);
+    LLGen gen;
+    try {
+      gen = new LLGen(args[0], text);
+    } catch (GrammarError e) {
+      System.out.println(e.getMessage());
+      System.exit(1);
+      return;
+    }
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(
+        Paths.get(args[1]), StandardCharsets.UTF_8))) {
+      gen.write(out);
+    }
+    return;
+  }
+}
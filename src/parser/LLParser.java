@@ -0,0 +1,556 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lexer.TokenBuffer;
+import control.Options;
+import lexer.Token.Kind;
+import util.Diagnostic;
+
+// A table-driven LL(1) parser, picked by "-parser ll", for the
+// grammar in MiniJava.grammar; LLGen makes its tables (LLTables)
+// from the grammar. It builds the same trees as Parser.
+//
+// The parse is a single loop over a stack of grammar symbols, kept
+// in the heap. A terminal on top of it must be the current token,
+// which is then eaten; a nonterminal is replaced by the right hand
+// side of the production the table predicts for it and the current
+// token (and the nonterminals in front of that by theirs, all in
+// one step: see LLGen.expand()); an action builds the tree, on a
+// second stack of values: the tokens "@tok" pushed (the node tokens
+// and first tokens of nodes still to be built), the nodes built but
+// not yet linked to their parent, and the lists "@list" started,
+// which "@append" adds those nodes to.
+//
+// Syntax errors are recovered from in panic mode, at the lists
+// Parser recovers in: the symbols are dropped down to the innermost
+// list being parsed (statements, declarations, methods or classes),
+// the tokens skipped as Parser skips them for that list, and the
+// rest of the list parsed from there (see recover()). The errors
+// are those of Parser, in its words: a nonterminal that may derive
+// nothing and has no production for the current token is taken as
+// empty, as Parser takes an optional part as absent and fails on
+// what follows it (see expected()). The actions stop at the first
+// error, so the tree of a program with errors is an empty PROGRAM.
+//
+// The tokens traced are those Parser traces: it eats the operators
+// but "&&" and "<", and a few more tokens, without tracing them,
+// and the grammar marks those as silent ("~").
+public class LLParser
+{
+  String fname;
+  TokenBuffer tokens;
+  TokenBuffer.Cursor current;
+  int previous; // the index of the last token eaten
+  Ast ast;
+  boolean traceTokens;
+  boolean traceProductions;
+  TraceSink trace;
+  List<Diagnostic> diagnostics;
+  // errors are not reported again until a token after this one
+  // has been eaten (see Parser)
+  int quiet;
+
+  // the grammar symbols still to parse, innermost on top
+  int[] symbols = new int[256];
+  // the values: a token, a node, or a list (its first node, and in
+  // "starts" its last one); for a node, "starts" holds the first
+  // token of the expression it is, parentheses included
+  int[] values = new int[256];
+  int[] starts = new int[256];
+  int count; // of values
+
+  // a parser for the token stream "tokens" of "fname" (see
+  // Lexer.tokenize()), set up by "options"
+  public LLParser(String fname, TokenBuffer tokens, Options options)
+  {
+    this.fname = fname;
+    this.tokens = tokens;
+    current = tokens.cursor(0);
+    previous = 0;
+    ast = new Ast(tokens);
+    diagnostics = new ArrayList<Diagnostic>();
+    quiet = -1;
+    trace(options.trace, new TraceSink.Null());
+  }
+
+  // trace the parse at "level" into "sink": every token eaten, and
+  // every node built
+  public void trace(Options.Trace level, TraceSink sink)
+  {
+    traceTokens = level != Options.Trace.OFF;
+    traceProductions = level == Options.Trace.PRODUCTIONS;
+    trace = sink;
+    return;
+  }
+
+  // Parse the program, and return its AST, which is an empty
+  // PROGRAM if there were syntax errors ("diagnostics()" is not
+  // empty).
+  public Ast parse()
+  {
+    int[] symbols = this.symbols;
+    int top = 0;
+    symbols[top++] = LLTables.START;
+    while (top > 0) {
+      int symbol = symbols[--top];
+      int kind = current.kind.ordinal();
+      if (symbol < LLTables.TERMINALS || symbol >= LLTables.SILENT) {
+        boolean silent = symbol >= LLTables.SILENT;
+        if (silent)
+          symbol -= LLTables.SILENT;
+        if (symbol == kind) {
+          if (traceTokens && !silent)
+            trace.token(tokens, current.index());
+          advance();
+        } else {
+          error(Kind.values()[symbol].toString());
+          top = recover(top, -1);
+        }
+        continue;
+      }
+      if (symbol < LLTables.ACTIONS) {
+        int n = symbol - LLTables.TERMINALS;
+        int e = LLTables.PREDICT[n * LLTables.TERMINALS + kind];
+        // as in Parser, a field of a class type starts with two
+        // identifiers, and one alone ends the fields: the tables,
+        // which look one token ahead, cannot tell
+        if (n == LLTables.N_VAR_DECLS && current.kind == Kind.TOKEN_ID
+            && current.peek(1) != Kind.TOKEN_ID)
+          e = -1;
+        if (e < 0) {
+          String expected = expected(n);
+          if (expected == null)
+            continue;
+          error(expected);
+          top = recover(top, n);
+          continue;
+        }
+        int length = LLTables.EXPANSIONS[e];
+        if (top + length > symbols.length)
+          this.symbols = symbols = Arrays.copyOf(symbols, 2 * (top + length));
+        System.arraycopy(LLTables.EXPANSIONS, e + 1, symbols, top, length);
+        top += length;
+        continue;
+      }
+      if (diagnostics.isEmpty())
+        action(symbol - LLTables.ACTIONS);
+    }
+    if (!diagnostics.isEmpty())
+      node(Ast.PROGRAM, Ast.NONE, Ast.NONE, 0);
+    trace.close();
+    return ast;
+  }
+
+  private void advance()
+  {
+    previous = current.index();
+    current.advance();
+    return;
+  }
+
+  // Report that the parser expected "expected" instead of the
+  // current token.
+  private void error(String expected)
+  {
+    if (current.index() != quiet) {
+      String lexeme = current.lexeme();
+      diagnostics.add(new Diagnostic(fname, current.sourceLine(), current
+          .columnNum(), "expects " + expected + ", but got "
+          + current.kind.toString()
+          + ((lexeme == null) ? "" : " " + lexeme)));
+    }
+    return;
+  }
+
+  // What Parser says it expects where nonterminal "n" has no
+  // production for the current token, or null where Parser would
+  // take "n" as absent, so that it is taken as empty (which "n" may
+  // then derive).
+  private static String expected(int n)
+  {
+    switch (n) {
+    case LLTables.N_EXP:
+    case LLTables.N_LT_EXP:
+    case LLTables.N_ADD_EXP:
+    case LLTables.N_TIMES_EXP:
+    case LLTables.N_NOT_EXP:
+    case LLTables.N_POSTFIX_EXP:
+    case LLTables.N_ATOM_EXP:
+    case LLTables.N_EXP_LIST: // Parser takes anything but ")" for one
+      return "an expression";
+    case LLTables.N_NEW_EXP:
+      return "int or a class name";
+    case LLTables.N_TYPE:
+    case LLTables.N_FORMAL:
+    case LLTables.N_VAR_DECL:
+      return "a type";
+    case LLTables.N_STATEMENT:
+    case LLTables.N_OTHER_STATEMENT:
+      return "a statement";
+    case LLTables.N_ID_BODY: // an identifier not followed by another
+    case LLTables.N_ASSIGN: // or "[" must be
+      return Kind.TOKEN_EQ.toString();
+    case LLTables.N_MEMBER: // a "." not followed by "length"
+      return Kind.TOKEN_ID.toString();
+    case LLTables.N_CLASS_DECLS: // Parser takes anything but the end
+      return Kind.TOKEN_CLASS.toString();
+    default:
+      // the rest start with a single token
+      return LLTables.NULLABLE[n] ? null : kinds(LLTables.FIRST[n]);
+    }
+  }
+
+  // the kinds in "set", a mask of Kind ordinals
+  static String kinds(long set)
+  {
+    StringBuilder s = new StringBuilder();
+    for (Kind kind : Kind.values())
+      if ((set & (1L << kind.ordinal())) != 0)
+        s.append((s.length() == 0) ? "" : " ").append(kind);
+    return s.toString();
+  }
+
+  // whether nonterminal "n" is a list Parser recovers in
+  private static boolean isList(int n)
+  {
+    switch (n) {
+    case LLTables.N_STATEMENTS:
+    case LLTables.N_BODY:
+    case LLTables.N_VAR_DECLS:
+    case LLTables.N_METHOD_DECLS:
+    case LLTables.N_CLASS_DECLS:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  // Recover from a syntax error with the symbols under "top" still
+  // to parse, and "n" the nonterminal that had no production for
+  // the current token (-1 for a terminal that was not there), and
+  // return the new top.
+  //
+  // The list to resume is "n" if it is one (after an "IdBody", the
+  // statements go on), or else the innermost list on the stack that is
+  // being parsed: a list nonterminal just under an "@append", which
+  // is the rest of the list the broken element is added to. The
+  // tokens are skipped as Parser skips them for that list. If none
+  // are, and the list cannot go on from the current token (fields
+  // at a "return"), the next list out is resumed instead; so every
+  // recovery either eats a token or drops a list, and the parse
+  // ends.
+  private int recover(int top, int n)
+  {
+    int[] symbols = this.symbols;
+    int list = (n == LLTables.N_ID_BODY) ? LLTables.N_STATEMENTS : n;
+    while (true) {
+      if (!isList(list)) {
+        int i = top - 2;
+        while (i >= 0
+            && !(isList(symbols[i] - LLTables.TERMINALS)
+                && symbols[i + 1] == LLTables.ACTIONS + LLTables.A_APPEND))
+          i--;
+        if (i < 0) {
+          // the program does not start with a class: what is left is
+          // parsed as classes, as Parser does
+          top = 0;
+          symbols[top++] = Kind.TOKEN_EOF.ordinal();
+          list = LLTables.N_CLASS_DECLS;
+        } else {
+          list = symbols[i] - LLTables.TERMINALS;
+          top = i;
+        }
+      }
+      int start = current.index();
+      switch (list) {
+      case LLTables.N_STATEMENTS:
+        skip(Parser.STATEMENT_SYNC);
+        if (current.kind == Kind.TOKEN_SEMI)
+          advance();
+        // the "else" branch a broken "if" leaves behind
+        while (current.kind == Kind.TOKEN_ELSE) {
+          advance();
+          skip(Parser.STATEMENT_SYNC);
+          if (current.kind == Kind.TOKEN_SEMI)
+            advance();
+        }
+        break;
+      case LLTables.N_VAR_DECLS:
+      case LLTables.N_BODY: // only declarations are added to a Body
+        skip(Parser.DECL_SYNC);
+        if (current.kind == Kind.TOKEN_SEMI)
+          advance();
+        break;
+      case LLTables.N_METHOD_DECLS:
+        // to the next method, or to the "}" that ends the class: the
+        // one before the next class or the end
+        while (current.kind != Kind.TOKEN_PUBLIC
+            && current.kind != Kind.TOKEN_CLASS
+            && current.kind != Kind.TOKEN_EOF
+            && !(current.kind == Kind.TOKEN_RBRACE && (current.peek(1) == Kind.TOKEN_CLASS || current
+                .peek(1) == Kind.TOKEN_EOF)))
+          advance();
+        quiet = current.index();
+        break;
+      default:
+        skip(0);
+        break;
+      }
+      if (current.index() != start
+          || LLTables.PREDICT[list * LLTables.TERMINALS
+              + current.kind.ordinal()] >= 0) {
+        symbols[top++] = LLTables.TERMINALS + list;
+        return top;
+      }
+      list = -1;
+    }
+  }
+
+  // Panic mode, as in Parser: skip tokens up to one in "sync"
+  // outside of any block, or to just after a block that started on
+  // the way. A "class" or the end of the file stops the skip
+  // anywhere.
+  private void skip(long sync)
+  {
+    int depth = 0;
+    while (current.kind != Kind.TOKEN_EOF && current.kind != Kind.TOKEN_CLASS) {
+      if (depth == 0 && (sync & (1L << current.kind.ordinal())) != 0)
+        break;
+      if (current.kind == Kind.TOKEN_LBRACE)
+        depth++;
+      else if (current.kind == Kind.TOKEN_RBRACE && depth > 0 && --depth == 0) {
+        advance();
+        break;
+      }
+      advance();
+    }
+    quiet = current.index();
+    return;
+  }
+
+  // a node of the AST, which ends with the last token eaten
+  private int node(int kind, int token, int firstChild, int firstToken)
+  {
+    if (traceProductions)
+      trace.production(Ast.kindName(kind), tokens, firstToken);
+    return ast.add(kind, token, firstChild, firstToken, previous);
+  }
+
+  private void push(int value, int start)
+  {
+    if (count == values.length) {
+      values = Arrays.copyOf(values, 2 * count);
+      starts = Arrays.copyOf(starts, 2 * count);
+    }
+    values[count] = value;
+    starts[count] = start;
+    count++;
+    return;
+  }
+
+  // Run action "action" on the values; the comments show the values
+  // it takes from the top of the stack, and what it leaves there.
+  private void action(int action)
+  {
+    int[] values = this.values;
+    int top = count - 1;
+    switch (action) {
+    case LLTables.A_TOK: // -> the current token
+      push(current.index(), current.index());
+      return;
+    case LLTables.A_LIST: // -> an empty list
+      push(Ast.NONE, Ast.NONE);
+      return;
+    case LLTables.A_APPEND: { // list node -> list
+      int node = values[top];
+      if (values[top - 1] == Ast.NONE)
+        values[top - 1] = node;
+      else
+        ast.link(starts[top - 1], node);
+      starts[top - 1] = node;
+      break;
+    }
+
+    // declarations
+    case LLTables.A_PROGRAM: // list -> node
+      values[top] = node(Ast.PROGRAM, Ast.NONE, values[top], 0);
+      return;
+    case LLTables.A_MAIN_CLASS: // token name list -> node
+      values[top - 2] = node(Ast.MAIN_CLASS, values[top - 1], values[top],
+          values[top - 2]);
+      count -= 2;
+      return;
+    case LLTables.A_CLASS: // token name list -> node
+      values[top - 2] = node(Ast.CLASS, values[top - 1], values[top],
+          values[top - 2]);
+      count -= 2;
+      return;
+    case LLTables.A_EXTENDS: // token name -> node
+      values[top - 1] = node(Ast.EXTENDS, values[top], Ast.NONE,
+          values[top - 1]);
+      break;
+    case LLTables.A_VAR_DECL: // type name -> node
+      values[top - 1] = node(Ast.VAR_DECL, values[top], values[top - 1],
+          starts[top - 1]);
+      break;
+    case LLTables.A_FORMAL: // type name -> node
+      values[top - 1] = node(Ast.FORMAL, values[top], values[top - 1],
+          starts[top - 1]);
+      break;
+    case LLTables.A_METHOD: { // token type name list -> node
+      int type = values[top - 2];
+      ast.link(type, values[top]);
+      values[top - 3] = node(Ast.METHOD, values[top - 1], type,
+          values[top - 3]);
+      count -= 3;
+      return;
+    }
+
+    // types
+    case LLTables.A_INT: // token -> node
+      values[top] = node(Ast.TYPE_INT, Ast.NONE, Ast.NONE, values[top]);
+      return;
+    case LLTables.A_INT_ARRAY:
+      values[top] = node(Ast.TYPE_INT_ARRAY, Ast.NONE, Ast.NONE, values[top]);
+      return;
+    case LLTables.A_BOOLEAN:
+      values[top] = node(Ast.TYPE_BOOLEAN, Ast.NONE, Ast.NONE, values[top]);
+      return;
+    case LLTables.A_CLASS_TYPE:
+      values[top] = node(Ast.TYPE_CLASS, values[top], Ast.NONE, values[top]);
+      return;
+    case LLTables.A_STRING_ARRAY:
+      values[top] = node(Ast.TYPE_STRING_ARRAY, Ast.NONE, Ast.NONE,
+          values[top]);
+      return;
+
+    // statements
+    case LLTables.A_BLOCK: // token list -> node
+      values[top - 1] = node(Ast.BLOCK, Ast.NONE, values[top],
+          values[top - 1]);
+      break;
+    case LLTables.A_IF: { // token condition then else -> node
+      int cond = values[top - 2];
+      ast.link(cond, values[top - 1]);
+      ast.link(values[top - 1], values[top]);
+      values[top - 3] = node(Ast.IF, values[top - 3], cond, values[top - 3]);
+      count -= 3;
+      return;
+    }
+    case LLTables.A_WHILE: { // token condition body -> node
+      int cond = values[top - 1];
+      ast.link(cond, values[top]);
+      values[top - 2] = node(Ast.WHILE, values[top - 2], cond, values[top - 2]);
+      count -= 2;
+      return;
+    }
+    case LLTables.A_PRINT: // token expression -> node
+      values[top - 1] = node(Ast.PRINT, values[top - 1], values[top],
+          values[top - 1]);
+      break;
+    case LLTables.A_ASSIGN: // token value -> node
+      values[top - 1] = node(Ast.ASSIGN, values[top - 1], values[top],
+          values[top - 1]);
+      break;
+    case LLTables.A_ARRAY_ASSIGN: { // token index value -> node
+      int index = values[top - 1];
+      ast.link(index, values[top]);
+      values[top - 2] = node(Ast.ARRAY_ASSIGN, values[top - 2], index,
+          values[top - 2]);
+      count -= 2;
+      return;
+    }
+
+    // expressions
+    case LLTables.A_BINARY: { // left operator right -> node
+      int left = values[top - 2], op = values[top - 1];
+      ast.link(left, values[top]);
+      values[top - 2] = node(operation(tokens.kind(op)), op, left,
+          starts[top - 2]);
+      count -= 2;
+      return;
+    }
+    case LLTables.A_NOT: // token operand -> node
+      values[top - 1] = node(Ast.NOT, values[top - 1], values[top],
+          values[top - 1]);
+      break;
+    case LLTables.A_ARRAY_GET: { // array token index -> node
+      int array = values[top - 2];
+      ast.link(array, values[top]);
+      values[top - 2] = node(Ast.ARRAY_GET, values[top - 1], array,
+          starts[top - 2]);
+      count -= 2;
+      return;
+    }
+    case LLTables.A_LENGTH: // array token -> node
+      values[top - 1] = node(Ast.LENGTH, values[top], values[top - 1],
+          starts[top - 1]);
+      break;
+    case LLTables.A_CALL: { // receiver name list -> node
+      int receiver = values[top - 2];
+      ast.link(receiver, values[top]);
+      values[top - 2] = node(Ast.CALL, values[top - 1], receiver,
+          starts[top - 2]);
+      count -= 2;
+      return;
+    }
+    case LLTables.A_PAREN: // token expression -> expression
+      values[top - 1] = values[top];
+      break;
+    case LLTables.A_NUM: // token -> node
+      values[top] = node(Ast.NUM, values[top], Ast.NONE, values[top]);
+      return;
+    case LLTables.A_TRUE:
+      values[top] = node(Ast.TRUE, values[top], Ast.NONE, values[top]);
+      return;
+    case LLTables.A_FALSE:
+      values[top] = node(Ast.FALSE, values[top], Ast.NONE, values[top]);
+      return;
+    case LLTables.A_THIS:
+      values[top] = node(Ast.THIS, values[top], Ast.NONE, values[top]);
+      return;
+    case LLTables.A_ID:
+      values[top] = node(Ast.ID, values[top], Ast.NONE, values[top]);
+      return;
+    case LLTables.A_NEW_INT_ARRAY: // token size -> node
+      values[top - 1] = node(Ast.NEW_INT_ARRAY, values[top - 1], values[top],
+          values[top - 1]);
+      break;
+    case LLTables.A_NEW_OBJECT: // token name -> node
+      values[top - 1] = node(Ast.NEW_OBJECT, values[top], Ast.NONE,
+          values[top - 1]);
+      break;
+    default:
+      throw new IllegalStateException("no action " + action);
+    }
+    // the actions that break take two values and leave one
+    count--;
+    return;
+  }
+
+  // the node of the binary operator "kind"
+  private static int operation(Kind kind)
+  {
+    switch (kind) {
+    case TOKEN_AND:
+      return Ast.AND;
+    case TOKEN_LT:
+      return Ast.LT;
+    case TOKEN_ADD:
+      return Ast.ADD;
+    case TOKEN_SUB:
+      return Ast.SUB;
+    default:
+      return Ast.TIMES;
+    }
+  }
+
+  // the syntax errors, in the order they were found
+  public List<Diagnostic> diagnostics()
+  {
+    return diagnostics;
+  }
+}
@@ -0,0 +1,370 @@
+package parser;
+
+// The LL(1) tables of MiniJava.grammar, made by LLGen: do not edit,
+// change the grammar and run LLGen again.
+final class LLTables
+{
+  // grammar symbols: a terminal is its Kind ordinal, nonterminal
+  // n is TERMINALS + n, action a is ACTIONS + a, and a silent
+  // terminal, eaten without being traced, is SILENT plus its Kind
+  // ordinal
+  static final int TERMINALS = 54;
+  static final int NONTERMINALS = 36;
+  static final int ACTIONS = TERMINALS + NONTERMINALS;
+  static final int SILENT = ACTIONS + 34;
+  // the start symbol
+  static final int START = TERMINALS;
+
+  // nonterminals
+  static final int N_PROGRAM = 0;
+  static final int N_MAIN_CLASS = 1;
+  static final int N_CLASS_DECLS = 2;
+  static final int N_STATEMENTS = 3;
+  static final int N_CLASS_DECL = 4;
+  static final int N_EXTENDS = 5;
+  static final int N_VAR_DECLS = 6;
+  static final int N_METHOD_DECLS = 7;
+  static final int N_VAR_DECL = 8;
+  static final int N_TYPE = 9;
+  static final int N_METHOD_DECL = 10;
+  static final int N_FORMAL_LIST = 11;
+  static final int N_BODY = 12;
+  static final int N_EXP = 13;
+  static final int N_FORMAL = 14;
+  static final int N_FORMAL_REST = 15;
+  static final int N_INT_TYPE = 16;
+  static final int N_ID_BODY = 17;
+  static final int N_OTHER_STATEMENT = 18;
+  static final int N_ASSIGN = 19;
+  static final int N_STATEMENT = 20;
+  static final int N_LT_EXP = 21;
+  static final int N_AND_TAIL = 22;
+  static final int N_ADD_EXP = 23;
+  static final int N_LT_TAIL = 24;
+  static final int N_TIMES_EXP = 25;
+  static final int N_ADD_TAIL = 26;
+  static final int N_NOT_EXP = 27;
+  static final int N_TIMES_TAIL = 28;
+  static final int N_POSTFIX_EXP = 29;
+  static final int N_ATOM_EXP = 30;
+  static final int N_POSTFIX_TAIL = 31;
+  static final int N_MEMBER = 32;
+  static final int N_EXP_LIST = 33;
+  static final int N_EXP_REST = 34;
+  static final int N_NEW_EXP = 35;
+
+  // actions
+  static final int A_LIST = 0;
+  static final int A_APPEND = 1;
+  static final int A_PROGRAM = 2;
+  static final int A_TOK = 3;
+  static final int A_STRING_ARRAY = 4;
+  static final int A_FORMAL = 5;
+  static final int A_MAIN_CLASS = 6;
+  static final int A_CLASS = 7;
+  static final int A_EXTENDS = 8;
+  static final int A_VAR_DECL = 9;
+  static final int A_METHOD = 10;
+  static final int A_BOOLEAN = 11;
+  static final int A_CLASS_TYPE = 12;
+  static final int A_INT_ARRAY = 13;
+  static final int A_INT = 14;
+  static final int A_BLOCK = 15;
+  static final int A_IF = 16;
+  static final int A_WHILE = 17;
+  static final int A_PRINT = 18;
+  static final int A_ASSIGN = 19;
+  static final int A_ARRAY_ASSIGN = 20;
+  static final int A_BINARY = 21;
+  static final int A_NOT = 22;
+  static final int A_ARRAY_GET = 23;
+  static final int A_LENGTH = 24;
+  static final int A_CALL = 25;
+  static final int A_PAREN = 26;
+  static final int A_NUM = 27;
+  static final int A_TRUE = 28;
+  static final int A_FALSE = 29;
+  static final int A_THIS = 30;
+  static final int A_ID = 31;
+  static final int A_NEW_INT_ARRAY = 32;
+  static final int A_NEW_OBJECT = 33;
+
+  static final String[] NAMES = { "Program", "MainClass", "ClassDecls",
+      "Statements", "ClassDecl", "Extends", "VarDecls", "MethodDecls",
+      "VarDecl", "Type", "MethodDecl", "FormalList", "Body", "Exp", "Formal",
+      "FormalRest", "IntType", "IdBody", "OtherStatement", "Assign",
+      "Statement", "LtExp", "AndTail", "AddExp", "LtTail", "TimesExp",
+      "AddTail", "NotExp", "TimesTail", "PostfixExp", "AtomExp",
+      "PostfixTail", "Member", "ExpList", "ExpRest", "NewExp", };
+
+  // the productions
+  // 0: Program -> @list MainClass @append ClassDecls EOF @program
+  // 1: MainClass -> @tok CLASS @tok ID LBRACE PUBLIC STATIC VOID MAIN LPAREN
+  //     @list @tok STRING LBRACK RBRACK @stringArray @tok ID @formal @append
+  //     RPAREN LBRACE Statements RBRACE RBRACE @mainClass
+  // 2: ClassDecls -> ClassDecl @append ClassDecls
+  // 3: ClassDecls ->
+  // 4: ClassDecl -> @tok CLASS @tok ID @list Extends LBRACE VarDecls
+  //     MethodDecls RBRACE @class
+  // 5: Extends -> @tok EXTENDS @tok ID @extends @append
+  // 6: Extends ->
+  // 7: VarDecls -> VarDecl @append VarDecls
+  // 8: VarDecls ->
+  // 9: VarDecl -> Type @tok ID SEMI @varDecl
+  // 10: MethodDecls -> MethodDecl @append MethodDecls
+  // 11: MethodDecls ->
+  // 12: MethodDecl -> @tok PUBLIC Type @tok ID LPAREN @list FormalList RPAREN
+  //     LBRACE Body RETURN Exp @append SEMI RBRACE @method
+  // 13: FormalList -> Formal @append FormalRest
+  // 14: FormalList ->
+  // 15: FormalRest -> ~COMMER Formal @append FormalRest
+  // 16: FormalRest ->
+  // 17: Formal -> Type @tok ID @formal
+  // 18: Type -> @tok INT IntType
+  // 19: Type -> @tok BOOLEAN @boolean
+  // 20: Type -> @tok ID @classType
+  // 21: IntType -> LBRACK RBRACK @intArray
+  // 22: IntType -> @int
+  // 23: Body -> @tok INT IntType @tok ID SEMI @varDecl @append Body
+  // 24: Body -> @tok BOOLEAN @boolean @tok ID SEMI @varDecl @append Body
+  // 25: Body -> @tok ID IdBody
+  // 26: Body -> OtherStatement @append Statements
+  // 27: Body ->
+  // 28: IdBody -> @classType @tok ID SEMI @varDecl @append Body
+  // 29: IdBody -> Assign @append Statements
+  // 30: Statements -> Statement @append Statements
+  // 31: Statements ->
+  // 32: Statement -> @tok ID Assign
+  // 33: Statement -> OtherStatement
+  // 34: OtherStatement -> @tok LBRACE @list Statements RBRACE @block
+  // 35: OtherStatement -> @tok IF LPAREN Exp RPAREN Statement ELSE Statement
+  //     @if
+  // 36: OtherStatement -> @tok WHILE LPAREN Exp RPAREN Statement @while
+  // 37: OtherStatement -> @tok SYSTEM DOT OUT DOT PRINTLN LPAREN Exp RPAREN
+  //     SEMI @print
+  // 38: Assign -> EQ Exp SEMI @assign
+  // 39: Assign -> LBRACK Exp RBRACK EQ Exp SEMI @arrayAssign
+  // 40: Exp -> LtExp AndTail
+  // 41: AndTail -> @tok AND LtExp @binary AndTail
+  // 42: AndTail ->
+  // 43: LtExp -> AddExp LtTail
+  // 44: LtTail -> @tok LT AddExp @binary LtTail
+  // 45: LtTail ->
+  // 46: AddExp -> TimesExp AddTail
+  // 47: AddTail -> @tok ~ADD TimesExp @binary AddTail
+  // 48: AddTail -> @tok ~SUB TimesExp @binary AddTail
+  // 49: AddTail ->
+  // 50: TimesExp -> NotExp TimesTail
+  // 51: TimesTail -> @tok ~TIMES NotExp @binary TimesTail
+  // 52: TimesTail ->
+  // 53: NotExp -> @tok ~NOT NotExp @not
+  // 54: NotExp -> PostfixExp
+  // 55: PostfixExp -> AtomExp PostfixTail
+  // 56: PostfixTail -> DOT Member
+  // 57: PostfixTail -> @tok ~LBRACK Exp RBRACK @arrayGet PostfixTail
+  // 58: PostfixTail ->
+  // 59: Member -> @tok ~LENGTH @length
+  // 60: Member -> @tok ID LPAREN @list ExpList RPAREN @call PostfixTail
+  // 61: ExpList -> Exp @append ExpRest
+  // 62: ExpList ->
+  // 63: ExpRest -> COMMER Exp @append ExpRest
+  // 64: ExpRest ->
+  // 65: AtomExp -> @tok LPAREN Exp RPAREN @paren
+  // 66: AtomExp -> @tok NUM @num
+  // 67: AtomExp -> @tok TRUE @true
+  // 68: AtomExp -> @tok FALSE @false
+  // 69: AtomExp -> @tok THIS @this
+  // 70: AtomExp -> @tok ID @id
+  // 71: AtomExp -> @tok NEW NewExp
+  // 72: NewExp -> INT LBRACK Exp RBRACK @newIntArray
+  // 73: NewExp -> @tok ID LPAREN RPAREN @newObject
+
+  // what nonterminal n is replaced with on a token of kind k, in
+  // one step: the production predicted, with the nonterminals in
+  // front of its first terminal replaced in turn. It starts at
+  // EXPANSIONS[PREDICT[n * TERMINALS + k]] (-1 for a syntax
+  // error) with its length, then its symbols reversed, so that
+  // they are pushed in the order they are stored.
+  static final int[] PREDICT = { -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 32, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 59, -1, -1, -1, 73, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      74, 80, -1, 92, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1, 73,
+      -1, -1, -1, -1, -1, 101, -1, -1, -1, -1, 115, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 125, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 137,
+      -1, -1, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 144, -1, -1, -1, -1, -1, -1,
+      -1, 154, -1, 164, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, 73,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 174, 73,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 194, -1, -1, -1, -1, -1,
+      -1, -1, 202, -1, 210, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 218, -1, -1, -1, -1,
+      -1, -1, -1, 222, -1, 226, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      230, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 248, -1, -1, -1,
+      -1, -1, -1, -1, 257, -1, 266, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 275, -1, -1,
+      -1, -1, -1, -1, -1, 285, 80, 289, 92, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, 73, -1, -1, -1, -1, -1, 101, -1, -1, -1, -1, 115,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, 299, 308, -1, -1, -1, -1, -1, 317, -1, -1, 328,
+      337, 346, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 355, -1, 364,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, 373, -1, -1, -1, -1, -1, -1, -1, 380, -1, 387, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, 394, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 399, -1, -1, -1, 401, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 405, -1, -1, -1, 413, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 423, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 430, -1, 440, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      447, -1, -1, -1, -1, 459, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      467, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 475, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 480, 430, -1,
+      440, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, 447, -1, -1, -1, -1, 459, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 484, 492,
+      -1, -1, -1, -1, -1, 500, -1, -1, 510, 518, 526, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, 534, -1, 542, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, 550, -1, -1, -1, 73, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73,
+      -1, 73, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      556, 563, -1, -1, -1, -1, -1, 570, -1, -1, 579, 586, 593, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, 600, -1, 607, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1, -1, -1, 73, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 614, -1, -1, -1, -1, -1, -1,
+      -1, -1, 73, -1, 73, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, 620, 626, -1, -1, -1, -1, -1, 632, -1, -1, 640, 646, 652,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 658, -1, 664, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 670, 73, -1, -1,
+      -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1, -1, -1,
+      -1, -1, -1, -1, -1, 73, -1, 73, 73, -1, -1, 676, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, 682, 687, -1, -1, -1, -1, -1, 692, -1, -1, 699,
+      704, 709, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 714, -1, 719,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, 73,
+      -1, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1,
+      -1, -1, -1, -1, -1, -1, -1, 73, -1, 73, 73, -1, -1, 73, -1, -1, 724, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, 682, 687, -1, -1, -1, -1, -1, 692, -1,
+      -1, 699, -1, 709, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 714,
+      -1, 719, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 730, 734, -1, -1, -1, -1, -1,
+      738, -1, -1, 744, -1, 748, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, 752, -1, 756, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, 73, 73, -1, -1, -1, 73, 760, -1, -1, -1, -1, -1, -1, -1, -1,
+      763, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1, 73, 73, -1, -1,
+      73, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 770, -1, -1, -1,
+      -1, 779, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 783, 794, -1, -1,
+      -1, -1, -1, 805, -1, -1, 818, 829, 840, -1, -1, -1, -1, -1, -1, 73, -1,
+      -1, -1, -1, -1, 851, -1, 862, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 873, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 878,
+      -1, 884, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+      -1, -1, -1, -1, -1, -1, };
+  static final int[] EXPANSIONS = { 31, 92, 8, 56, 91, 96, 26, 26, 57, 14, 29,
+      91, 95, 11, 93, 94, 27, 15, 32, 93, 90, 17, 19, 38, 31, 25, 14, 11, 93,
+      4, 93, 90, 26, 96, 26, 26, 57, 14, 29, 91, 95, 11, 93, 94, 27, 15, 32,
+      93, 90, 17, 19, 38, 31, 25, 14, 11, 93, 4, 93, 13, 56, 91, 97, 26, 61,
+      60, 14, 59, 90, 11, 93, 4, 93, 0, 5, 57, 91, 73, 11, 93, 11, 57, 91,
+      106, 74, 7, 74, 29, 67, 17, 12, 93, 8, 57, 91, 105, 26, 57, 90, 14, 93,
+      13, 57, 91, 108, 30, 29, 67, 17, 24, 6, 23, 6, 34, 93, 9, 57, 91, 107,
+      74, 29, 67, 17, 39, 93, 11, 97, 26, 61, 60, 14, 59, 90, 11, 93, 4, 93,
+      6, 91, 98, 11, 93, 9, 93, 9, 60, 91, 99, 30, 11, 93, 101, 3, 93, 9, 60,
+      91, 99, 30, 11, 93, 102, 11, 93, 9, 60, 91, 99, 30, 11, 93, 70, 13, 93,
+      19, 61, 91, 100, 26, 30, 91, 67, 28, 66, 14, 29, 65, 90, 17, 11, 93, 63,
+      25, 93, 7, 99, 30, 11, 93, 101, 3, 93, 7, 99, 30, 11, 93, 102, 11, 93,
+      7, 99, 30, 11, 93, 70, 13, 93, 3, 101, 3, 93, 3, 102, 11, 93, 3, 70, 13,
+      93, 17, 100, 26, 30, 91, 67, 28, 66, 14, 29, 65, 90, 17, 11, 93, 63, 25,
+      93, 8, 69, 91, 95, 11, 93, 101, 3, 93, 8, 69, 91, 95, 11, 93, 102, 11,
+      93, 8, 69, 91, 95, 11, 93, 70, 13, 93, 9, 66, 91, 99, 30, 11, 93, 101,
+      3, 93, 3, 71, 11, 93, 9, 66, 91, 99, 30, 11, 93, 70, 13, 93, 8, 76, 78,
+      80, 82, 85, 119, 10, 93, 8, 76, 78, 80, 82, 85, 121, 11, 93, 10, 76, 78,
+      80, 82, 85, 116, 29, 67, 17, 93, 8, 76, 78, 80, 82, 85, 89, 20, 93, 8,
+      76, 78, 80, 82, 112, 81, 145, 93, 8, 76, 78, 80, 82, 85, 117, 22, 93, 8,
+      76, 78, 80, 82, 85, 120, 35, 93, 8, 76, 78, 80, 82, 85, 118, 37, 93, 6,
+      95, 11, 93, 101, 3, 93, 6, 95, 11, 93, 102, 11, 93, 6, 95, 11, 93, 70,
+      13, 93, 4, 69, 91, 68, 129, 1, 104, 3, 103, 27, 15, 7, 66, 91, 99, 30,
+      11, 93, 102, 9, 57, 91, 110, 30, 67, 46, 27, 67, 15, 6, 57, 91, 109, 30,
+      67, 46, 9, 106, 74, 7, 74, 29, 67, 17, 12, 93, 6, 105, 26, 57, 90, 14,
+      93, 11, 108, 30, 29, 67, 17, 24, 6, 23, 6, 34, 93, 7, 107, 74, 29, 67,
+      17, 39, 93, 7, 110, 30, 67, 46, 27, 67, 15, 4, 109, 30, 67, 46, 3, 73,
+      11, 93, 7, 78, 80, 82, 85, 119, 10, 93, 7, 78, 80, 82, 85, 121, 11, 93,
+      9, 78, 80, 82, 85, 116, 29, 67, 17, 93, 7, 78, 80, 82, 85, 89, 20, 93,
+      7, 78, 80, 82, 112, 81, 145, 93, 7, 78, 80, 82, 85, 117, 22, 93, 7, 78,
+      80, 82, 85, 120, 35, 93, 7, 78, 80, 82, 85, 118, 37, 93, 5, 76, 111, 75,
+      1, 93, 6, 80, 82, 85, 119, 10, 93, 6, 80, 82, 85, 121, 11, 93, 8, 80,
+      82, 85, 116, 29, 67, 17, 93, 6, 80, 82, 85, 89, 20, 93, 6, 80, 82, 112,
+      81, 145, 93, 6, 80, 82, 85, 117, 22, 93, 6, 80, 82, 85, 120, 35, 93, 6,
+      80, 82, 85, 118, 37, 93, 5, 78, 111, 77, 18, 93, 5, 82, 85, 119, 10, 93,
+      5, 82, 85, 121, 11, 93, 7, 82, 85, 116, 29, 67, 17, 93, 5, 82, 85, 89,
+      20, 93, 5, 82, 112, 81, 145, 93, 5, 82, 85, 117, 22, 93, 5, 82, 85, 120,
+      35, 93, 5, 82, 85, 118, 37, 93, 5, 80, 111, 79, 124, 93, 5, 80, 111, 79,
+      157, 93, 4, 85, 119, 10, 93, 4, 85, 121, 11, 93, 6, 85, 116, 29, 67, 17,
+      93, 4, 85, 89, 20, 93, 4, 112, 81, 145, 93, 4, 85, 117, 22, 93, 4, 85,
+      120, 35, 93, 4, 85, 118, 37, 93, 5, 82, 111, 81, 160, 93, 3, 119, 10,
+      93, 3, 121, 11, 93, 5, 116, 29, 67, 17, 93, 3, 89, 20, 93, 3, 117, 22,
+      93, 3, 120, 35, 93, 3, 118, 37, 93, 2, 86, 6, 6, 85, 113, 27, 67, 139,
+      93, 8, 85, 115, 29, 87, 90, 17, 11, 93, 3, 114, 140, 93, 10, 88, 91, 76,
+      78, 80, 82, 85, 119, 10, 93, 10, 88, 91, 76, 78, 80, 82, 85, 121, 11,
+      93, 12, 88, 91, 76, 78, 80, 82, 85, 116, 29, 67, 17, 93, 10, 88, 91, 76,
+      78, 80, 82, 85, 89, 20, 93, 10, 88, 91, 76, 78, 80, 82, 112, 81, 145,
+      93, 10, 88, 91, 76, 78, 80, 82, 85, 117, 22, 93, 10, 88, 91, 76, 78, 80,
+      82, 85, 120, 35, 93, 10, 88, 91, 76, 78, 80, 82, 85, 118, 37, 93, 4, 88,
+      91, 67, 5, 5, 123, 29, 17, 11, 93, 5, 122, 27, 67, 15, 13, };
+
+  // by nonterminal: whether it may derive nothing, and its FIRST
+  // and FOLLOW sets, as masks of Kind ordinals
+  static final boolean[] NULLABLE = { false, false, true, true, false, true,
+      true, true, false, false, false, true, true, false, false, true, true,
+      false, false, false, false, false, true, false, true, false, true,
+      false, true, false, false, true, false, true, true, false, };
+  static final long[] FIRST = { 0x10L, 0x10L, 0x10L, 0x8400005800L, 0x10L,
+      0x200L, 0x2808L, 0x2000000L, 0x2808L, 0x2808L, 0x2000000L, 0x2808L,
+      0x8400007808L, 0x2800720c00L, 0x2808L, 0x20L, 0x8000L, 0x400000008800L,
+      0x8400005000L, 0x400000008000L, 0x8400005800L, 0x2800720c00L, 0x2L,
+      0x2800720c00L, 0x40000L, 0x2800720c00L, 0x200000001L, 0x2800720c00L,
+      0x1000000000L, 0x2800520c00L, 0x2800520c00L, 0x8040L, 0x10800L,
+      0x2800720c00L, 0x20L, 0x2800L, };
+  static final long[] FOLLOW = { 0x100L, 0x110L, 0x100L, 0x14000000L, 0x110L,
+      0x4000L, 0x6000000L, 0x4000000L, 0x6002808L, 0x800L, 0x6000000L,
+      0x20000000L, 0x10000000L, 0x68000020L, 0x20000020L, 0x20000000L, 0x800L,
+      0x10000000L, 0x8414005880L, 0x8414005880L, 0x8414005880L, 0x68000022L,
+      0x68000020L, 0x68040022L, 0x68000022L, 0x268040023L, 0x68040022L,
+      0x1268040023L, 0x268040023L, 0x1268040023L, 0x1268048063L,
+      0x1268040023L, 0x1268040023L, 0x20000000L, 0x20000000L, 0x1268048063L, };
+}
@@ -1,18 +1,143 @@
 package parser;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import lexer.Lexer;
-import lexer.Token;
+import lexer.TokenBuffer;
+import control.Options;
 import lexer.Token.Kind;
+import util.Diagnostic;
 
+// A syntax error does not stop the parse: the parser records a
+// Diagnostic, unwinds to the nearest statement, declaration, method
+// or class (panic mode), skips tokens up to one that may follow it,
+// and carries on. The nodes built for the broken construct stay in
+// the arena, unlinked.
 public class Parser
 {
-  Lexer lexer;
-  Token current;
+  String fname;
+  TokenBuffer tokens;
+  TokenBuffer.Cursor current;
+  int previous; // the index of the last token eaten
+  Ast ast;
+  // the trace: checked before any call into "trace", so that with
+  // tracing off the parser does no tracing work at all
+  boolean traceTokens;
+  boolean traceProductions;
+  TraceSink trace;
+  List<Diagnostic> diagnostics;
+  // skim the method bodies (see skim())
+  boolean skim;
+  // see Options.parallelParseThreshold
+  int parallelParseThreshold;
+  // errors are not reported again until a token after this one
+  // has been eaten: one right after a recovery is most likely a
+  // consequence of the previous one
+  int quiet;
+
+  // thrown to unwind to the nearest recovery point; it carries
+  // nothing, so a single one does
+  private static class Recovery extends RuntimeException
+  {
+    private static final long serialVersionUID = 1L;
+
+    Recovery()
+    {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final Recovery RECOVERY = new Recovery();
+
+  // sets of token kinds, as masks of their ordinals
+  private static long set(Kind... kinds)
+  {
+    long set = 0;
+    for (Kind kind : kinds)
+      set |= 1L << kind.ordinal();
+    return set;
+  }
+
+  // where to resume after a broken statement or declaration: what
+  // may follow one (";" ends it, "}" the block, "return" the
+  // statements of a method, "public" the declarations of a class)
+  static final long STATEMENT_SYNC = set(Kind.TOKEN_SEMI,
+      Kind.TOKEN_RBRACE, Kind.TOKEN_RETURN);
+  static final long DECL_SYNC = set(Kind.TOKEN_SEMI,
+      Kind.TOKEN_RBRACE, Kind.TOKEN_RETURN, Kind.TOKEN_PUBLIC);
 
   public Parser(String fname, java.io.InputStream fstream)
   {
-    lexer = new Lexer(fname, fstream);
-    current = lexer.nextToken();
+    this(fname, new lexer.StreamSource(fstream));
+  }
+
+  public Parser(String fname, lexer.Source source)
+  {
+    this(fname, Lexer.tokenize(fname, source), Options.DEFAULT);
+  }
+
+  // a parser for the token stream "tokens" of "fname" (see
+  // Lexer.tokenize()), set up by "options"
+  public Parser(String fname, TokenBuffer tokens, Options options)
+  {
+    this(fname, tokens, new Ast(tokens), 0);
+    parallelParseThreshold = options.parallelParseThreshold;
+  }
+
+  // a parser for a part of "tokens", from token "start" on, that
+  // adds its nodes to "ast"
+  Parser(String fname, TokenBuffer tokens, Ast ast, int start)
+  {
+    this.fname = fname;
+    this.tokens = tokens;
+    current = tokens.cursor(start);
+    previous = start;
+    this.ast = ast;
+    diagnostics = new ArrayList<Diagnostic>();
+    parallelParseThreshold = -1;
+    quiet = -1;
+    trace(Options.Trace.OFF, new TraceSink.Null());
+  }
+
+  // a parser for class declarations of the same file as "parent",
+  // from token "start" on
+  private Parser(Parser parent, int start)
+  {
+    fname = parent.fname;
+    tokens = parent.tokens;
+    current = tokens.cursor(start);
+    previous = start;
+    ast = new Ast(tokens);
+    diagnostics = new ArrayList<Diagnostic>();
+    quiet = parent.quiet;
+    skim = parent.skim;
+    parallelParseThreshold = -1;
+    trace(Options.Trace.OFF, new TraceSink.Null());
+  }
+
+  // Skim: parse each method up to its variable declarations only,
+  // and skip its statements and return by matching braces, into a
+  // BODY node. The declarations of the program, which are all that
+  // the class and method tables need, then cost little more than
+  // lexing; Ast.parseBody() parses a body when it is needed.
+  public void skim()
+  {
+    skim = true;
+    ast.deferBodies(this);
+    return;
+  }
+
+  // trace the parse at "level" into "sink"
+  public void trace(Options.Trace level, TraceSink sink)
+  {
+    traceTokens = level != Options.Trace.OFF;
+    traceProductions = level == Options.Trace.PRODUCTIONS;
+    trace = sink;
+    return;
   }
 
   // /////////////////////////////////////////////
@@ -21,52 +146,96 @@ public class Parser
 
   private void advance()
   {
-		current = lexer.nextToken();
-}
+    previous = current.index();
+    current.advance();
+  }
 
   private void eatToken(Kind kind)
   {
     if (kind == current.kind)
     { 
-    	System.out.println(current.toString());        
+    	if (traceTokens)
+    	  trace.token(tokens, current.index());
     	advance();
     }
-    else {
-      System.out.println("Expects: " + kind.toString());
-      System.out.println("But got: " + current.kind.toString() +"\t" + current.lexeme +  "\tlineNum:" + current.lineNum);
-      System.exit(1);
+    else
+      error(kind.toString());
+  }
+
+  // Report that the parser expected "expected" instead of the
+  // current token, and unwind to the nearest recovery point.
+  private void error(String expected)
+  {
+    if (current.index() != quiet) {
+      String lexeme = current.lexeme();
+      diagnostics.add(new Diagnostic(fname, current.sourceLine(), current
+          .columnNum(), "expects " + expected + ", but got "
+          + current.kind.toString()
+          + ((lexeme == null) ? "" : " " + lexeme)));
     }
+    throw RECOVERY;
   }
 
-  private void error()
+  // Panic mode: skip tokens up to one in "sync" outside of any
+  // block, or to just after a block that started on the way. A
+  // "class" or the end of the file stops the skip anywhere.
+  private void skip(long sync)
   {
-    System.out.println("Syntax error: compilation aborting...\n");
-    System.exit(1);
+    int depth = 0;
+    while (current.kind != Kind.TOKEN_EOF && current.kind != Kind.TOKEN_CLASS) {
+      if (depth == 0 && (sync & (1L << current.kind.ordinal())) != 0)
+        break;
+      if (current.kind == Kind.TOKEN_LBRACE)
+        depth++;
+      else if (current.kind == Kind.TOKEN_RBRACE && depth > 0 && --depth == 0) {
+        advance();
+        break;
+      }
+      advance();
+    }
+    quiet = current.index();
     return;
   }
 
-  // ////////////////////////////////////////////////////////////
-  // below are method for parsing.
-
-  // A bunch of parsing methods to parse expressions. The messy
-  // parts are to deal with precedence and associativity.
+  // a node of the AST, which ends with the last token eaten
+  private int node(int kind, int token, int firstChild, int firstToken)
+  {
+    if (traceProductions)
+      trace.production(Ast.kindName(kind), tokens, firstToken);
+    return ast.add(kind, token, firstChild, firstToken, previous);
+  }
 
-  // ExpList -> Exp ExpRest*
-  // ->
-  // ExpRest -> , Exp
-  private void parseExpList()
-  {
-    if (current.kind == Kind.TOKEN_RPAREN)
-      return;
-    parseExp();    
-    while (current.kind == Kind.TOKEN_COMMER) {
-      eatToken(Kind.TOKEN_COMMER);
-      parseExp();
-    }
-    return;
+  // Put the node list "b" after the node list "a", either of
+  // which may be empty (NONE), and return the head of the result.
+  private int concat(int a, int b)
+  {
+    if (a == Ast.NONE)
+      return b;
+    int last = a;
+    while (ast.nextSibling(last) != Ast.NONE)
+      last = ast.nextSibling(last);
+    ast.link(last, b);
+    return a;
   }
 
-  // AtomExp -> (exp)
+  // ////////////////////////////////////////////////////////////
+  // below are method for parsing. Each one returns the AST node
+  // of what it parsed, or, for the lists, the first node of the
+  // list, with the others linked after it (NONE for none).
+
+  // Expressions, loosest first; the binary operators are all left
+  // associative, and "!" binds tighter than "*" but looser than
+  // the postfix forms:
+  // Exp -> Exp && Exp
+  // -> Exp < Exp
+  // -> Exp + Exp
+  // -> Exp - Exp
+  // -> Exp * Exp
+  // -> ! Exp
+  // -> Exp .id (ExpList)
+  // -> Exp [exp]
+  // -> Exp .length (which nothing may follow)
+  // -> (exp)
   // -> INTEGER_LITERAL
   // -> true
   // -> false
@@ -74,141 +243,275 @@ public class Parser
   // -> id
   // -> new int [exp]
   // -> new id ()
-  private void parseAtomExp()
-  {
-    switch (current.kind) {
-    case TOKEN_LPAREN:
-      eatToken(Kind.TOKEN_LPAREN);
-      parseExp();
-      eatToken(Kind.TOKEN_RPAREN);
-      return;
-    case TOKEN_NUM:
-      eatToken(Kind.TOKEN_NUM);
-      return;
-    case TOKEN_TRUE:
-    	eatToken(Kind.TOKEN_TRUE);
-    	return;
-    case TOKEN_FALSE:
-    	eatToken(Kind.TOKEN_FALSE);
-    	return;
-    case TOKEN_THIS:
-    	eatToken(Kind.TOKEN_THIS);
-      return;
-    case TOKEN_ID:
-    	eatToken(Kind.TOKEN_ID);
-      return;
-    case TOKEN_NEW: {
- //advance();
-    	eatToken(Kind.TOKEN_NEW);
-      switch (current.kind) {
-      case TOKEN_INT:
-        eatToken(Kind.TOKEN_INT);
-        eatToken(Kind.TOKEN_LBRACK);
-        parseExp();
-        eatToken(Kind.TOKEN_RBRACK);
-        return;
-      case TOKEN_ID:
-        eatToken(Kind.TOKEN_ID);
-        eatToken(Kind.TOKEN_LPAREN);
-        eatToken(Kind.TOKEN_RPAREN);
+  // ExpList -> Exp ExpRest*
+  // ->
+  // ExpRest -> , Exp
+  //
+  // This is a precedence climbing parser, in a single loop: the
+  // operands parsed so far and the constructs still open around
+  // them (operators waiting for their right operand, "!"s, "(",
+  // "[", argument lists, "new int [") are kept on two stacks in
+  // the heap, so that nesting is bounded by memory rather than by
+  // the thread's stack. It builds the same nodes, in the same
+  // order, as a recursive descent through one method per level.
 
-        return;
-      default:
-        error();
-        return;
-      }
-    }
-    default:
-      error();
-      return;
-    }
-  }
+  // binding power of each binary operator, by Kind ordinal (0 for
+  // other tokens), and the node it makes
+  private static final int[] BINDING = new int[Kind.values().length];
+  private static final int[] OPERATION = new int[Kind.values().length];
 
-  // NotExp -> AtomExp
-  // -> AtomExp .id (expList)
-  // -> AtomExp [exp]
-  // -> AtomExp .length
-  private void parseNotExp()
+  private static void operator(Kind kind, int binding, int operation)
   {
-    parseAtomExp();
-    while (current.kind == Kind.TOKEN_DOT || current.kind == Kind.TOKEN_LBRACK) {
-      if (current.kind == Kind.TOKEN_DOT) {
-        eatToken(Kind.TOKEN_DOT);
-        if (current.kind == Kind.TOKEN_LENGTH) {
-          advance();
-          return;
-        }
-        eatToken(Kind.TOKEN_ID);
-        eatToken(Kind.TOKEN_LPAREN);
-        parseExpList();
-        eatToken(Kind.TOKEN_RPAREN);
-      } else {
-        advance();
-        parseExp();
-        eatToken(Kind.TOKEN_RBRACK);
-      }
-    }
+    BINDING[kind.ordinal()] = binding;
+    OPERATION[kind.ordinal()] = operation;
     return;
   }
 
-  // TimesExp -> ! TimesExp
-  // -> NotExp
-  private void parseTimesExp()
-  {
-    while (current.kind == Kind.TOKEN_NOT) {
-      advance();
-    }
-    parseNotExp();
-    return;
+  static {
+    operator(Kind.TOKEN_AND, 1, Ast.AND);
+    operator(Kind.TOKEN_LT, 2, Ast.LT);
+    operator(Kind.TOKEN_ADD, 3, Ast.ADD);
+    operator(Kind.TOKEN_SUB, 3, Ast.SUB);
+    operator(Kind.TOKEN_TIMES, 4, Ast.TIMES);
   }
 
-  // AddSubExp -> TimesExp * TimesExp
-  // -> TimesExp
-  private void parseAddSubExp()
-  {
-    parseTimesExp();
-    while (current.kind == Kind.TOKEN_TIMES) {
-      advance();
-      parseTimesExp();
-    }
-    return;
-  }
+  // what the expression parser expects next
+  private static final int OPERAND = 0; // an operand, maybe after "!"s
+  private static final int POSTFIX = 1; // ".", "[" or the end of an operand
+  private static final int COMPLETE = 2; // an operator, or the end
+
+  // the open constructs; "frameTokens" holds their first token
+  private static final int F_BINARY = 0; // "frameValues": binding power
+  private static final int F_NOT = 1;
+  private static final int F_PAREN = 2;
+  private static final int F_INDEX = 3;
+  private static final int F_NEW_ARRAY = 4;
+  private static final int F_ARGS = 5; // token the method name;
+                                       // "frameValues": arguments so far
+
+  int[] frameTypes = new int[64];
+  int[] frameTokens = new int[64];
+  int[] frameValues = new int[64];
+  // the operands, and the token each starts at
+  int[] operandNodes = new int[64];
+  int[] operandStarts = new int[64];
 
-  // LtExp -> AddSubExp + AddSubExp
-  // -> AddSubExp - AddSubExp
-  // -> AddSubExp
-  private void parseLtExp()
+  // push a frame on the "n" already there, and return the new count
+  private int pushFrame(int n, int type, int token, int value)
   {
-    parseAddSubExp();
-    while (current.kind == Kind.TOKEN_ADD || current.kind == Kind.TOKEN_SUB) {
-      advance();
-      parseAddSubExp();
+    if (n == frameTypes.length) {
+      frameTypes = java.util.Arrays.copyOf(frameTypes, 2 * n);
+      frameTokens = java.util.Arrays.copyOf(frameTokens, 2 * n);
+      frameValues = java.util.Arrays.copyOf(frameValues, 2 * n);
     }
-    return;
+    frameTypes[n] = type;
+    frameTokens[n] = token;
+    frameValues[n] = value;
+    return n + 1;
   }
 
-  // AndExp -> LtExp < LtExp
-  // -> LtExp
-  private void parseAndExp()
+  private int pushOperand(int n, int node, int start)
   {
-    parseLtExp();
-    while (current.kind == Kind.TOKEN_LT) {
-      eatToken(Kind.TOKEN_LT);
-      parseLtExp();
+    if (n == operandNodes.length) {
+      operandNodes = java.util.Arrays.copyOf(operandNodes, 2 * n);
+      operandStarts = java.util.Arrays.copyOf(operandStarts, 2 * n);
     }
-    return;
+    operandNodes[n] = node;
+    operandStarts[n] = start;
+    return n + 1;
   }
 
-  // Exp -> AndExp && AndExp
-  // -> AndExp
-  private void parseExp()
+  private int parseExp()
   {
-    parseAndExp();
-    while (current.kind == Kind.TOKEN_AND) {
-      eatToken(Kind.TOKEN_AND);
-      parseAndExp();
+    int frames = 0, operands = 0;
+    int state = OPERAND;
+    while (true) {
+      switch (state) {
+      case OPERAND: {
+        int start = current.index();
+        switch (current.kind) {
+        case TOKEN_NOT:
+          advance();
+          frames = pushFrame(frames, F_NOT, start, 0);
+          continue;
+        case TOKEN_LPAREN:
+          eatToken(Kind.TOKEN_LPAREN);
+          frames = pushFrame(frames, F_PAREN, start, 0);
+          continue;
+        case TOKEN_NUM:
+          eatToken(Kind.TOKEN_NUM);
+          operands = pushOperand(operands, node(Ast.NUM, start, Ast.NONE,
+              start), start);
+          break;
+        case TOKEN_TRUE:
+          eatToken(Kind.TOKEN_TRUE);
+          operands = pushOperand(operands, node(Ast.TRUE, start, Ast.NONE,
+              start), start);
+          break;
+        case TOKEN_FALSE:
+          eatToken(Kind.TOKEN_FALSE);
+          operands = pushOperand(operands, node(Ast.FALSE, start, Ast.NONE,
+              start), start);
+          break;
+        case TOKEN_THIS:
+          eatToken(Kind.TOKEN_THIS);
+          operands = pushOperand(operands, node(Ast.THIS, start, Ast.NONE,
+              start), start);
+          break;
+        case TOKEN_ID:
+          eatToken(Kind.TOKEN_ID);
+          operands = pushOperand(operands, node(Ast.ID, start, Ast.NONE,
+              start), start);
+          break;
+        case TOKEN_NEW:
+          eatToken(Kind.TOKEN_NEW);
+          switch (current.kind) {
+          case TOKEN_INT:
+            eatToken(Kind.TOKEN_INT);
+            eatToken(Kind.TOKEN_LBRACK);
+            frames = pushFrame(frames, F_NEW_ARRAY, start, 0);
+            continue;
+          case TOKEN_ID: {
+            int name = current.index();
+            eatToken(Kind.TOKEN_ID);
+            eatToken(Kind.TOKEN_LPAREN);
+            eatToken(Kind.TOKEN_RPAREN);
+            operands = pushOperand(operands, node(Ast.NEW_OBJECT, name,
+                Ast.NONE, start), start);
+            break;
+          }
+          default:
+            error("int or a class name");
+            return Ast.NONE;
+          }
+          break;
+        default:
+          error("an expression");
+          return Ast.NONE;
+        }
+        state = POSTFIX;
+        continue;
+      }
+
+      case POSTFIX: {
+        int top = operands - 1;
+        if (current.kind == Kind.TOKEN_DOT) {
+          eatToken(Kind.TOKEN_DOT);
+          if (current.kind == Kind.TOKEN_LENGTH) {
+            int length = current.index();
+            advance();
+            operandNodes[top] = node(Ast.LENGTH, length, operandNodes[top],
+                operandStarts[top]);
+            state = COMPLETE;
+            continue;
+          }
+          int name = current.index();
+          eatToken(Kind.TOKEN_ID);
+          eatToken(Kind.TOKEN_LPAREN);
+          if (current.kind == Kind.TOKEN_RPAREN) {
+            eatToken(Kind.TOKEN_RPAREN);
+            operandNodes[top] = node(Ast.CALL, name, operandNodes[top],
+                operandStarts[top]);
+            continue;
+          }
+          frames = pushFrame(frames, F_ARGS, name, 1);
+          state = OPERAND;
+          continue;
+        }
+        if (current.kind == Kind.TOKEN_LBRACK) {
+          frames = pushFrame(frames, F_INDEX, current.index(), 0);
+          advance();
+          state = OPERAND;
+          continue;
+        }
+        state = COMPLETE;
+        continue;
+      }
+
+      default: {
+        // the "!"s in front of the operand apply to all of it
+        while (frames > 0 && frameTypes[frames - 1] == F_NOT) {
+          int not = frameTokens[--frames];
+          operandNodes[operands - 1] = node(Ast.NOT, not,
+              operandNodes[operands - 1], not);
+          operandStarts[operands - 1] = not;
+        }
+        // reduce the operators on the left that bind at least as
+        // tightly as the one here (all of them, if there is none)
+        int binding = BINDING[current.kind.ordinal()];
+        while (frames > 0 && frameTypes[frames - 1] == F_BINARY
+            && frameValues[frames - 1] >= binding) {
+          int op = frameTokens[--frames];
+          int right = operandNodes[--operands];
+          int left = operandNodes[operands - 1];
+          ast.link(left, right);
+          operandNodes[operands - 1] = node(
+              OPERATION[tokens.kind(op).ordinal()], op, left,
+              operandStarts[operands - 1]);
+        }
+        if (binding > 0) {
+          frames = pushFrame(frames, F_BINARY, current.index(), binding);
+          // only "&&" and "<" have ever been echoed in the trace
+          if (current.kind == Kind.TOKEN_AND || current.kind == Kind.TOKEN_LT)
+            eatToken(current.kind);
+          else
+            advance();
+          state = OPERAND;
+          continue;
+        }
+        if (frames == 0)
+          return operandNodes[0];
+
+        // the operand completes the construct around it
+        int top = frames - 1;
+        int operand = operandNodes[operands - 1];
+        switch (frameTypes[top]) {
+        case F_PAREN:
+          eatToken(Kind.TOKEN_RPAREN);
+          operandStarts[operands - 1] = frameTokens[top];
+          break;
+        case F_INDEX: {
+          int array = operandNodes[--operands - 1];
+          ast.link(array, operand);
+          eatToken(Kind.TOKEN_RBRACK);
+          operandNodes[operands - 1] = node(Ast.ARRAY_GET, frameTokens[top],
+              array, operandStarts[operands - 1]);
+          break;
+        }
+        case F_NEW_ARRAY: {
+          int start = frameTokens[top];
+          eatToken(Kind.TOKEN_RBRACK);
+          operandNodes[operands - 1] = node(Ast.NEW_INT_ARRAY, start,
+              operand, start);
+          operandStarts[operands - 1] = start;
+          break;
+        }
+        default: { // F_ARGS
+          // the arguments are linked as they come, the receiver
+          // before them once they are all there
+          if (frameValues[top] > 1)
+            ast.link(operandNodes[operands - 2], operand);
+          if (current.kind == Kind.TOKEN_COMMER) {
+            eatToken(Kind.TOKEN_COMMER);
+            frameValues[top]++;
+            state = OPERAND;
+            continue;
+          }
+          operands -= frameValues[top];
+          int receiver = operandNodes[operands - 1];
+          ast.link(receiver, operandNodes[operands]);
+          eatToken(Kind.TOKEN_RPAREN);
+          operandNodes[operands - 1] = node(Ast.CALL, frameTokens[top],
+              receiver, operandStarts[operands - 1]);
+          break;
+        }
+        }
+        frames = top;
+        state = POSTFIX;
+        continue;
+      }
+      }
     }
-    return;
   }
 
   // Statement -> { Statement* }
@@ -217,280 +520,497 @@ public class Parser
   // -> System.out.println ( Exp ) ;
   // -> id = Exp ;
   // -> id [ Exp ]= Exp ;
-  // -> return Exp;
-  private void parseStatement()
-  {
-	  while(current.kind == Kind.TOKEN_LBRACE || current.kind == Kind.TOKEN_IF  || current.kind == Kind.TOKEN_RBRACE
-			  || current.kind == Kind.TOKEN_WHILE || current.kind == Kind.TOKEN_SYSTEM 
-			  || current.kind == Kind.TOKEN_ID || current.kind == Kind.TOKEN_EQ 
-			  || current.kind == Kind.TOKEN_RETURN
-			  || current.kind == Kind.TOKEN_TRUE || current.kind == Kind.TOKEN_FALSE)
-	  {
-
-		  switch (current.kind)
-		  {
-		  case TOKEN_TRUE:
-		  {
-			  eatToken(Kind.TOKEN_TRUE);
-			  eatToken(Kind.TOKEN_SEMI);
-			  continue;
-		  }
-		  case TOKEN_FALSE:
-		  {
-			  eatToken(Kind.TOKEN_FALSE);
-			  eatToken(Kind.TOKEN_SEMI);
-			  continue;
-		  }
-		  case TOKEN_RBRACE:
-		  {
-			  eatToken(Kind.TOKEN_RBRACE); 
-			  // need to fix some situation
-			  continue;
-		  }
-		  case TOKEN_RETURN:
-				{
-					if(current.kind != Kind.TOKEN_SEMI)
-					{
-						eatToken(Kind.TOKEN_RETURN);
-						parseExpList();
-						eatToken(Kind.TOKEN_SEMI);
-					}
-					else 
-						eatToken(Kind.TOKEN_SEMI);
-					continue;
-				}
-
-		  	case TOKEN_LBRACE:
-		  	{
-				  eatToken(Kind.TOKEN_LBRACE);
-				  parseStatement();
-//				  eatToken(Kind.TOKEN_RBRACE);
-				  return;
-		  	}
-		    // -> if ( Exp ) Statement else Statement
-		  	case TOKEN_IF:
-		  	{
-		  		eatToken(Kind.TOKEN_IF);
-		  		parseExpList();
-		  			parseStatement();
-
-		  		eatToken(Kind.TOKEN_ELSE);
-		  			parseStatement();
-		  		return;
-		  	}
-		    // -> while ( Exp ) Statement
-		  	case TOKEN_WHILE:
-		  	{
-		  		eatToken(Kind.TOKEN_WHILE);
-		  		parseExpList();
-		  		if(current.kind == Kind.TOKEN_LBRACE)
-		  			eatToken(Kind.TOKEN_LBRACE);
-		  		parseStatement();
-		  		continue;
-		  	}
-		  	case TOKEN_SYSTEM:
-		  	{
-		  		eatToken(Kind.TOKEN_SYSTEM);
-		  		eatToken(Kind.TOKEN_DOT);
-		  		eatToken(Kind.TOKEN_OUT);
-		  		eatToken(Kind.TOKEN_DOT);
-		  		eatToken(Kind.TOKEN_PRINTLN);
-		  		eatToken(Kind.TOKEN_LPAREN);
-		  		parseExpList();
-		  		eatToken(Kind.TOKEN_RPAREN);
-		  		eatToken(Kind.TOKEN_SEMI);
-		  		continue;
-				  
-		  	}
-		    // -> id = Exp ;
-		    // -> id [ Exp ]= Exp ;
-		    // -> id.id(exp);     //added by miantuan
-		  	case TOKEN_ID:
-		  	case TOKEN_EQ:
-		  	{
-		  		if(current.kind == Kind.TOKEN_ID)
-		  		{
-		  			eatToken(Kind.TOKEN_ID);
-		  			if(current.kind == Kind.TOKEN_LBRACK)
-		  			{
-		  				eatToken(Kind.TOKEN_LBRACK);
-		  				parseExpList();
-		  				eatToken(Kind.TOKEN_RBRACK);
-		  			}
-		  		}
-		  		eatToken(Kind.TOKEN_EQ);
-		  		parseExpList();
-		  		eatToken(Kind.TOKEN_SEMI);
-		  		continue;
-		  	}
-		  	default:
-		  		error();
-	//	  		return;
-		  }
-	  }
-	  return;
-    // Lab1. Exercise 4: Fill in the missing code
-    // to parse a statement.
-  //  new util.Todo();
-  }
-
   // Statements -> Statement Statements
   // ->
-  private void parseStatements()
+  //
+  // Like expressions, statements are parsed in a loop over a stack
+  // in the heap rather than by recursion, so blocks, "if"s and
+  // "while"s nest as deep as memory allows. A syntax error is
+  // recovered from in the innermost list of statements around it,
+  // as it would be with one parseStatements() per block.
+
+  // the statements still open
+  private static final int S_LIST = 0; // the statements of a method
+  private static final int S_BLOCK = 1; // { Statement*
+  private static final int S_THEN = 2; // if ( Exp ) Statement
+  private static final int S_ELSE = 3; // if ( Exp ) Statement else Statement
+  private static final int S_WHILE = 4; // while ( Exp ) Statement
+
+  int[] statementTypes = new int[64];
+  int[] statementStarts = new int[64]; // their first token
+  // for a list, its first and last statements so far; otherwise
+  // the condition, and the "then" statement of an S_ELSE
+  int[] statementFirsts = new int[64];
+  int[] statementLasts = new int[64];
+
+  // push a statement on the "n" already open, and return the new
+  // count
+  private int pushStatement(int n, int type, int start, int first)
   {
-    while (current.kind == Kind.TOKEN_LBRACE || current.kind == Kind.TOKEN_IF
+    if (n == statementTypes.length) {
+      statementTypes = java.util.Arrays.copyOf(statementTypes, 2 * n);
+      statementStarts = java.util.Arrays.copyOf(statementStarts, 2 * n);
+      statementFirsts = java.util.Arrays.copyOf(statementFirsts, 2 * n);
+      statementLasts = java.util.Arrays.copyOf(statementLasts, 2 * n);
+    }
+    statementTypes[n] = type;
+    statementStarts[n] = start;
+    statementFirsts[n] = first;
+    statementLasts[n] = Ast.NONE;
+    return n + 1;
+  }
+
+  private boolean startsStatement()
+  {
+    return current.kind == Kind.TOKEN_LBRACE || current.kind == Kind.TOKEN_IF
         || current.kind == Kind.TOKEN_WHILE
-        || current.kind == Kind.TOKEN_SYSTEM || current.kind == Kind.TOKEN_ID) {
-      parseStatement();
+        || current.kind == Kind.TOKEN_SYSTEM || current.kind == Kind.TOKEN_ID;
+  }
+
+  private int parseStatements()
+  {
+    int frames = pushStatement(0, S_LIST, Ast.NONE, Ast.NONE);
+    // whether the innermost open statement is a list
+    boolean list = true;
+    while (true) {
+      try {
+        int stm;
+        if (list && !startsStatement()) {
+          // the end of a list
+          int top = frames - 1;
+          if (statementTypes[top] == S_LIST)
+            return statementFirsts[top];
+          frames = top;
+          eatToken(Kind.TOKEN_RBRACE);
+          stm = node(Ast.BLOCK, Ast.NONE, statementFirsts[top],
+              statementStarts[top]);
+        } else {
+          int start = current.index();
+          switch (current.kind) {
+          case TOKEN_LBRACE:
+            eatToken(Kind.TOKEN_LBRACE);
+            frames = pushStatement(frames, S_BLOCK, start, Ast.NONE);
+            list = true;
+            continue;
+          case TOKEN_IF: {
+            eatToken(Kind.TOKEN_IF);
+            eatToken(Kind.TOKEN_LPAREN);
+            int cond = parseExp();
+            eatToken(Kind.TOKEN_RPAREN);
+            frames = pushStatement(frames, S_THEN, start, cond);
+            list = false;
+            continue;
+          }
+          case TOKEN_WHILE: {
+            eatToken(Kind.TOKEN_WHILE);
+            eatToken(Kind.TOKEN_LPAREN);
+            int cond = parseExp();
+            eatToken(Kind.TOKEN_RPAREN);
+            frames = pushStatement(frames, S_WHILE, start, cond);
+            list = false;
+            continue;
+          }
+          case TOKEN_SYSTEM: {
+            eatToken(Kind.TOKEN_SYSTEM);
+            eatToken(Kind.TOKEN_DOT);
+            eatToken(Kind.TOKEN_OUT);
+            eatToken(Kind.TOKEN_DOT);
+            eatToken(Kind.TOKEN_PRINTLN);
+            eatToken(Kind.TOKEN_LPAREN);
+            int exp = parseExp();
+            eatToken(Kind.TOKEN_RPAREN);
+            eatToken(Kind.TOKEN_SEMI);
+            stm = node(Ast.PRINT, start, exp, start);
+            break;
+          }
+          case TOKEN_ID: {
+            // "=" is TOKEN_EQ (see the lexer)
+            eatToken(Kind.TOKEN_ID);
+            if (current.kind == Kind.TOKEN_LBRACK) {
+              eatToken(Kind.TOKEN_LBRACK);
+              int index = parseExp();
+              eatToken(Kind.TOKEN_RBRACK);
+              eatToken(Kind.TOKEN_EQ);
+              ast.link(index, parseExp());
+              eatToken(Kind.TOKEN_SEMI);
+              stm = node(Ast.ARRAY_ASSIGN, start, index, start);
+              break;
+            }
+            eatToken(Kind.TOKEN_EQ);
+            int value = parseExp();
+            eatToken(Kind.TOKEN_SEMI);
+            stm = node(Ast.ASSIGN, start, value, start);
+            break;
+          }
+          default:
+            error("a statement");
+            return Ast.NONE;
+          }
+        }
+
+        // "stm" is complete: it may complete the statements around
+        // it in turn
+        while (true) {
+          int top = frames - 1;
+          int type = statementTypes[top];
+          if (type == S_THEN) {
+            statementTypes[top] = S_ELSE;
+            statementLasts[top] = stm;
+            eatToken(Kind.TOKEN_ELSE);
+            list = false;
+            break;
+          }
+          if (type == S_ELSE) {
+            int cond = statementFirsts[top];
+            ast.link(cond, statementLasts[top]);
+            ast.link(statementLasts[top], stm);
+            frames = top;
+            stm = node(Ast.IF, statementStarts[top], cond,
+                statementStarts[top]);
+            continue;
+          }
+          if (type == S_WHILE) {
+            int cond = statementFirsts[top];
+            ast.link(cond, stm);
+            frames = top;
+            stm = node(Ast.WHILE, statementStarts[top], cond,
+                statementStarts[top]);
+            continue;
+          }
+          // a list: append it
+          if (statementFirsts[top] == Ast.NONE)
+            statementFirsts[top] = stm;
+          else
+            ast.link(statementLasts[top], stm);
+          statementLasts[top] = stm;
+          list = true;
+          break;
+        }
+      } catch (Recovery r) {
+        // drop the statements open inside the innermost list
+        while (statementTypes[frames - 1] != S_LIST
+            && statementTypes[frames - 1] != S_BLOCK)
+          frames--;
+        list = true;
+        skip(STATEMENT_SYNC);
+        if (current.kind == Kind.TOKEN_SEMI)
+          advance();
+        // a broken "if" leaves its "else" branch behind, after the
+        // ";" (or block) that ends its "then" branch
+        while (current.kind == Kind.TOKEN_ELSE) {
+          advance();
+          skip(STATEMENT_SYNC);
+          if (current.kind == Kind.TOKEN_SEMI)
+            advance();
+        }
+      }
     }
-    return;
   }
 
   // Type -> int []
   // -> boolean
   // -> int
   // -> id
-
-  private void parseType()
-  {
-    // Lab1. Exercise 4: Fill in the missing code
-    // to parse a type.	  
-	  switch(current.kind)
-	  {
-	  case TOKEN_INT:
-	  {
-		  eatToken(Kind.TOKEN_INT);
-		  if (current.kind == Kind.TOKEN_LBRACK)
-			  {
-			  	eatToken(Kind.TOKEN_LBRACK);
-			  	eatToken(Kind.TOKEN_RBRACK);
-			  	return;
-			  }
-		  return;
-	  }
-	  case TOKEN_BOOLEAN:
-		  eatToken(Kind.TOKEN_BOOLEAN);break;
-	  case TOKEN_FALSE:
-		  eatToken(Kind.TOKEN_FALSE);break;
-	  case TOKEN_TRUE:
-		  eatToken(Kind.TOKEN_TRUE);break;
-	  case TOKEN_ID:
-		  eatToken(Kind.TOKEN_ID);break;
-	  default:
-		  error();
-	  }
-	  return ;
+  private int parseType()
+  {
+    int start = current.index();
+    switch (current.kind) {
+    case TOKEN_INT:
+      eatToken(Kind.TOKEN_INT);
+      if (current.kind == Kind.TOKEN_LBRACK) {
+        eatToken(Kind.TOKEN_LBRACK);
+        eatToken(Kind.TOKEN_RBRACK);
+        return node(Ast.TYPE_INT_ARRAY, Ast.NONE, Ast.NONE, start);
+      }
+      return node(Ast.TYPE_INT, Ast.NONE, Ast.NONE, start);
+    case TOKEN_BOOLEAN:
+      eatToken(Kind.TOKEN_BOOLEAN);
+      return node(Ast.TYPE_BOOLEAN, Ast.NONE, Ast.NONE, start);
+    case TOKEN_ID:
+      eatToken(Kind.TOKEN_ID);
+      return node(Ast.TYPE_CLASS, start, Ast.NONE, start);
+    default:
+      error("a type");
+      return Ast.NONE;
+    }
   }
 
   // VarDecl -> Type id ;
-  private void parseVarDecl()
+  private int parseVarDecl()
   {
-    // to parse the "Type" nonterminal in this method, instead of writing
-    // a fresh one.	
-	parseType();
-	if(current.kind == Kind.TOKEN_EQ)  return;  //if next token is "=", return
+    int start = current.index();
+    int type = parseType();
+    int name = current.index();
     eatToken(Kind.TOKEN_ID);
     eatToken(Kind.TOKEN_SEMI);
-    return;
+    return node(Ast.VAR_DECL, name, type, start);
   }
 
   // VarDecls -> VarDecl VarDecls
   // ->
-  private void parseVarDecls()
+  private int parseVarDecls()
   {
-    while (current.kind == Kind.TOKEN_INT || current.kind == Kind.TOKEN_BOOLEAN || current.kind == Kind.TOKEN_ID) 
-    {    	
-      parseVarDecl();
-      if(current.kind == Kind.TOKEN_EQ)  return;    //if next token is "=", return
+    int first = Ast.NONE, last = Ast.NONE;
+    // an identifier starts a declaration (of a variable of a class
+    // type) only if another one follows; otherwise it starts the
+    // statements
+    while (current.kind == Kind.TOKEN_INT
+        || current.kind == Kind.TOKEN_BOOLEAN
+        || (current.kind == Kind.TOKEN_ID && current.peek(1) == Kind.TOKEN_ID)) {
+      int decl;
+      try {
+        decl = parseVarDecl();
+      } catch (Recovery r) {
+        skip(DECL_SYNC);
+        if (current.kind == Kind.TOKEN_SEMI)
+          advance();
+        continue;
+      }
+      if (first == Ast.NONE)
+        first = decl;
+      else
+        ast.link(last, decl);
+      last = decl;
     }
-    return;
+    return first;
   }
 
   // FormalList -> Type id FormalRest*
   // ->
   // FormalRest -> , Type id
-  private void parseFormalList()
+  private int parseFormalList()
   {
     if (current.kind == Kind.TOKEN_INT || current.kind == Kind.TOKEN_BOOLEAN
         || current.kind == Kind.TOKEN_ID) {
-      parseType();
-      eatToken(Kind.TOKEN_ID);
+      int first = parseFormal();
+      int last = first;
       while (current.kind == Kind.TOKEN_COMMER) {
         advance();
-        parseType();
-        eatToken(Kind.TOKEN_ID);
+        int formal = parseFormal();
+        ast.link(last, formal);
+        last = formal;
       }
+      return first;
     }
-    return;
+    return Ast.NONE;
+  }
+
+  private int parseFormal()
+  {
+    int start = current.index();
+    int type = parseType();
+    int name = current.index();
+    eatToken(Kind.TOKEN_ID);
+    return node(Ast.FORMAL, name, type, start);
   }
 
   // Method -> public Type id ( FormalList )
   // { VarDecl* Statement* return Exp ;}
-  private void parseMethod()
-  {
-    // Lab1. Exercise 4: Fill in the missing code
-    // to parse a method.
-
-	if(current.kind == Kind.TOKEN_INT)
-		eatToken(Kind.TOKEN_INT);
-	else if(current.kind == Kind.TOKEN_BOOLEAN)
-		eatToken(Kind.TOKEN_BOOLEAN);
-	else if(current.kind == Kind.TOKEN_REAL)
-		eatToken(Kind.TOKEN_REAL);
-	else if(current.kind == Kind.TOKEN_ID)
-		eatToken(Kind.TOKEN_ID);
-	else 
-	{
-		System.out.println("error:   " + current.toString());
-		error();
-	}
-	eatToken(Kind.TOKEN_ID);
-	eatToken(Kind.TOKEN_LPAREN);
-	parseFormalList();
-	eatToken(Kind.TOKEN_RPAREN);
-	eatToken(Kind.TOKEN_LBRACE);
-	//deal with var declaration
-	parseVarDecls();
-	parseStatement();
-  //  new util.Todo();
+  private int parseMethod()
+  {
+    int start = current.index();
+    eatToken(Kind.TOKEN_PUBLIC);
+    int type = parseType();
+    int name = current.index();
+    eatToken(Kind.TOKEN_ID);
+    eatToken(Kind.TOKEN_LPAREN);
+    int formals = parseFormalList();
+    eatToken(Kind.TOKEN_RPAREN);
+    eatToken(Kind.TOKEN_LBRACE);
+    int vars = parseVarDecls();
+    if (skim) {
+      int body = skipBody();
+      return node(Ast.METHOD, name, concat(type, concat(formals, concat(vars,
+          body))), start);
+    }
+    int body = parseStatements();
+    eatToken(Kind.TOKEN_RETURN);
+    int result = parseExp();
+    eatToken(Kind.TOKEN_SEMI);
+    eatToken(Kind.TOKEN_RBRACE);
+    int children = concat(type, concat(formals, concat(vars, concat(body,
+        result))));
+    return node(Ast.METHOD, name, children, start);
+  }
+
+  // Skip the rest of a method body, up to the "}" that closes it,
+  // and return a BODY node over the tokens skipped.
+  private int skipBody()
+  {
+    int start = current.index();
+    int depth = 0;
+    while (current.kind != Kind.TOKEN_RBRACE || depth > 0) {
+      if (current.kind == Kind.TOKEN_EOF || current.kind == Kind.TOKEN_CLASS)
+        error(Kind.TOKEN_RBRACE.toString());
+      if (current.kind == Kind.TOKEN_LBRACE)
+        depth++;
+      else if (current.kind == Kind.TOKEN_RBRACE)
+        depth--;
+      advance();
+    }
+    int body = node(Ast.BODY, Ast.NONE, Ast.NONE, start);
+    eatToken(Kind.TOKEN_RBRACE);
+    return body;
+  }
+
+  // Parse the skimmed body "body" of "method": its statements and
+  // returned expression take its place among the children of the
+  // method. If it has a syntax error, the method is left without
+  // them (a full parse would have dropped the whole method).
+  void parseBody(int method, int body)
+  {
+    Parser parser = new Parser(fname, tokens, ast, ast.firstToken(body));
+    int children;
+    try {
+      int statements = parser.parseStatements();
+      parser.eatToken(Kind.TOKEN_RETURN);
+      int result = parser.parseExp();
+      parser.eatToken(Kind.TOKEN_SEMI);
+      parser.eatToken(Kind.TOKEN_RBRACE);
+      children = parser.concat(statements, result);
+    } catch (Recovery r) {
+      children = Ast.NONE;
+    }
+    ast.replace(method, body, children);
+    diagnostics.addAll(parser.diagnostics);
     return;
   }
 
   // MethodDecls -> MethodDecl MethodDecls
   // ->
-  private void parseMethodDecls()
+  private int parseMethodDecls()
   {
+    int first = Ast.NONE, last = Ast.NONE;
     while (current.kind == Kind.TOKEN_PUBLIC) {
-    	eatToken(Kind.TOKEN_PUBLIC);
-      parseMethod();     
+      int method;
+      try {
+        method = parseMethod();
+      } catch (Recovery r) {
+        // skip to the next method, or to the "}" that ends the
+        // class: the one before the next class or the end
+        while (current.kind != Kind.TOKEN_PUBLIC
+            && current.kind != Kind.TOKEN_CLASS
+            && current.kind != Kind.TOKEN_EOF
+            && !(current.kind == Kind.TOKEN_RBRACE && (current.peek(1) == Kind.TOKEN_CLASS || current
+                .peek(1) == Kind.TOKEN_EOF)))
+          advance();
+        quiet = current.index();
+        continue;
+      }
+      if (first == Ast.NONE)
+        first = method;
+      else
+        ast.link(last, method);
+      last = method;
     }
-    return;
+    return first;
   }
 
   // ClassDecl -> class id { VarDecl* MethodDecl* }
   // -> class id extends id { VarDecl* MethodDecl* }
-  private void parseClassDecl()
+  private int parseClassDecl()
   {
+    int start = current.index();
     eatToken(Kind.TOKEN_CLASS);
+    int name = current.index();
     eatToken(Kind.TOKEN_ID);
+    int ext = Ast.NONE;
     if (current.kind == Kind.TOKEN_EXTENDS) {
+      int extStart = current.index();
       eatToken(Kind.TOKEN_EXTENDS);
+      int superName = current.index();
       eatToken(Kind.TOKEN_ID);
+      ext = node(Ast.EXTENDS, superName, Ast.NONE, extStart);
     }
     eatToken(Kind.TOKEN_LBRACE);
-    parseVarDecls();    
-    parseMethodDecls(); 
-    return;
+    int vars = parseVarDecls();
+    int methods = parseMethodDecls();
+    eatToken(Kind.TOKEN_RBRACE);
+    return node(Ast.CLASS, name, concat(ext, concat(vars, methods)), start);
   }
 
   // ClassDecls -> ClassDecl ClassDecls
   // ->
-  private void parseClassDecls()
+  // Anything else before the end of the file is an error. The
+  // declarations stop at token "end" too (-1 for none), which must
+  // be a "class".
+  private int parseClassDecls(int end)
   {
-    while (current.kind == Kind.TOKEN_CLASS) {
-      parseClassDecl();
+    int first = Ast.NONE, last = Ast.NONE;
+    while (current.kind != Kind.TOKEN_EOF && current.index() != end) {
+      int decl;
+      try {
+        decl = parseClassDecl();
+      } catch (Recovery r) {
+        skip(0);
+        continue;
+      }
+      if (first == Ast.NONE)
+        first = decl;
+      else
+        ast.link(last, decl);
+      last = decl;
     }
-    return;
+    return first;
+  }
+
+  // Parse the class declarations in parallel, if there are enough
+  // of them, and otherwise sequentially.
+  //
+  // The token stream is cut into chunks at "class" tokens. Nothing
+  // in a class declaration ever goes past the next "class", even
+  // when it is broken (see skip()), so each chunk can be parsed on
+  // its own, by a parser with its own cursor, arena and
+  // diagnostics, with the result of a sequential parse. The chunk
+  // trees are appended to this one in order, which gives their
+  // nodes the very ids they would have had.
+  private int parseClassDeclsInParallel()
+  {
+    int threshold = parallelParseThreshold;
+    // a trace must come out in order
+    if (threshold < 0 || traceTokens)
+      return parseClassDecls(-1);
+
+    tokens.fillAll();
+    int eof = tokens.size() - 1;
+    List<Integer> starts = new ArrayList<Integer>();
+    starts.add(current.index());
+    for (int i = current.index() + 1; i < eof; i++)
+      if (tokens.kind(i) == Kind.TOKEN_CLASS)
+        starts.add(i);
+    if (starts.size() < threshold)
+      return parseClassDecls(-1);
+
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    int chunks = Math.min(starts.size(), 4 * pool.getParallelism());
+    List<Parser> parsers = new ArrayList<Parser>();
+    List<ForkJoinTask<Integer>> tasks = new ArrayList<ForkJoinTask<Integer>>();
+    for (int k = 0; k < chunks; k++) {
+      final Parser parser = new Parser(this,
+          starts.get(k * starts.size() / chunks));
+      final int end = (k + 1 == chunks) ? -1 : starts.get((k + 1)
+          * starts.size() / chunks);
+      parsers.add(parser);
+      tasks.add(pool.submit(new Callable<Integer>() {
+        @Override
+        public Integer call()
+        {
+          return parser.parseClassDecls(end);
+        }
+      }));
+    }
+
+    int first = Ast.NONE;
+    for (int k = 0; k < chunks; k++) {
+      int decls = tasks.get(k).join();
+      int offset = ast.append(parsers.get(k).ast);
+      diagnostics.addAll(parsers.get(k).diagnostics);
+      if (decls != Ast.NONE)
+        first = concat(first, decls + offset);
+    }
+    current = tokens.cursor(eof);
+    previous = eof - 1;
+    return first;
   }
 
   // MainClass -> class id
@@ -500,42 +1020,97 @@ public class Parser
   // Statement
   // }
   // }
-  private void parseMainClass()
-  {
-	  eatToken(Kind.TOKEN_CLASS);
-	  eatToken(Kind.TOKEN_ID);
-	  eatToken(Kind.TOKEN_LBRACE);
-	  eatToken(Kind.TOKEN_PUBLIC);
-	  eatToken(Kind.TOKEN_STATIC);
-	  eatToken(Kind.TOKEN_VOID);
-	  eatToken(Kind.TOKEN_MAIN);
-	  eatToken(Kind.TOKEN_LPAREN);
-	  eatToken(Kind.TOKEN_STRING);
-	  eatToken(Kind.TOKEN_LBRACK);
-	  eatToken(Kind.TOKEN_RBRACK);
-	  eatToken(Kind.TOKEN_ID);
-	  eatToken(Kind.TOKEN_RPAREN);
-	  parseStatement();
-	 // eatToken(Kind.TOKEN_RBRACE);
-	  return;
-	// Lab1. Exercise 4: Fill in the missing code
-    // to parse a main class as described by the
-    // grammar above.
- //   new util.Todo();
+  private int parseMainClass()
+  {
+    int start = current.index();
+    eatToken(Kind.TOKEN_CLASS);
+    int name = current.index();
+    eatToken(Kind.TOKEN_ID);
+    eatToken(Kind.TOKEN_LBRACE);
+    eatToken(Kind.TOKEN_PUBLIC);
+    eatToken(Kind.TOKEN_STATIC);
+    eatToken(Kind.TOKEN_VOID);
+    eatToken(Kind.TOKEN_MAIN);
+    eatToken(Kind.TOKEN_LPAREN);
+    int argStart = current.index();
+    eatToken(Kind.TOKEN_STRING);
+    eatToken(Kind.TOKEN_LBRACK);
+    eatToken(Kind.TOKEN_RBRACK);
+    int type = node(Ast.TYPE_STRING_ARRAY, Ast.NONE, Ast.NONE, argStart);
+    int arg = current.index();
+    eatToken(Kind.TOKEN_ID);
+    int formal = node(Ast.FORMAL, arg, type, argStart);
+    eatToken(Kind.TOKEN_RPAREN);
+    eatToken(Kind.TOKEN_LBRACE);
+    ast.link(formal, parseStatements());
+    eatToken(Kind.TOKEN_RBRACE);
+    eatToken(Kind.TOKEN_RBRACE);
+    return node(Ast.MAIN_CLASS, name, formal, start);
   }
 
   // Program -> MainClass ClassDecl*
-  private void parseProgram()
+  private int parseProgram()
   {
-    parseMainClass();
-    parseClassDecls();	
+    int main;
+    try {
+      main = parseMainClass();
+    } catch (Recovery r) {
+      skip(0);
+      main = Ast.NONE;
+    }
+    int classes = parseClassDeclsInParallel();
+    if (main == Ast.NONE)
+      main = classes;
+    else
+      ast.link(main, classes);
     eatToken(Kind.TOKEN_EOF);
-    return;
+    return node(Ast.PROGRAM, Ast.NONE, main, 0);
   }
 
-  public void parse()
+  // Parse the program, and return its AST. If there were syntax
+  // errors ("diagnostics()" is not empty), the tree holds only
+  // what could be parsed.
+  public Ast parse()
   {
     parseProgram();
-    return;
+    trace.close();
+    return ast;
+  }
+
+  // Parse a single main class, class or method ("kind" one of
+  // Ast.MAIN_CLASS, Ast.CLASS and Ast.METHOD) from the start
+  // token on, and return its node, or NONE if it has an error.
+  // "last()" is then the index of its last token.
+  int parseUnit(int kind)
+  {
+    int n;
+    try {
+      switch (kind) {
+      case Ast.MAIN_CLASS:
+        n = parseMainClass();
+        break;
+      case Ast.CLASS:
+        n = parseClassDecl();
+        break;
+      default:
+        n = parseMethod();
+        break;
+      }
+    } catch (Recovery r) {
+      return Ast.NONE;
+    }
+    return diagnostics.isEmpty() ? n : Ast.NONE;
+  }
+
+  // the index of the last token eaten
+  int last()
+  {
+    return previous;
+  }
+
+  // the syntax errors, in the order they were found
+  public List<Diagnostic> diagnostics()
+  {
+    return diagnostics;
   }
 }
@@ -0,0 +1,208 @@
+package parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import lexer.TokenBuffer;
+import lexer.TokenDump;
+
+// Where the parser's trace goes. The parser calls "token()" for
+// each token it eats and, when tracing productions, "production()"
+// each time it completes a node of the AST; with tracing off it
+// calls neither, so the sink costs nothing. "close()" is called
+// once the parse is over, or before it aborts.
+public interface TraceSink
+{
+  // the parser ate token "i" of "tokens"
+  void token(TokenBuffer tokens, int i);
+
+  // the parser completed the production "name" (an Ast kind
+  // name), which starts at token "first" of "tokens"
+  void production(String name, TokenBuffer tokens, int first);
+
+  // send everything traced so far to its destination; an error
+  // writing it is thrown as an UncheckedIOException
+  void close();
+
+  // A sink that drops everything.
+  public static class Null implements TraceSink
+  {
+    @Override
+    public void token(TokenBuffer tokens, int i)
+    {
+      return;
+    }
+
+    @Override
+    public void production(String name, TokenBuffer tokens, int first)
+    {
+      return;
+    }
+
+    @Override
+    public void close()
+    {
+      return;
+    }
+  }
+
+  // A sink that prints the trace with a TokenDump: tokens in the
+  // -testlexer format, productions as "<name>" with the position
+  // of their first token. On TokenDump.stdout(), the trace stays
+  // in order with the -lex output.
+  public static class Text implements TraceSink
+  {
+    protected TokenDump dump;
+
+    public Text(TokenDump dump)
+    {
+      this.dump = dump;
+    }
+
+    @Override
+    public void token(TokenBuffer tokens, int i)
+    {
+      this.dump.write(tokens, i);
+      return;
+    }
+
+    @Override
+    public void production(String name, TokenBuffer tokens, int first)
+    {
+      this.dump.production(name, tokens, first);
+      return;
+    }
+
+    @Override
+    public void close()
+    {
+      this.dump.flush();
+      return;
+    }
+  }
+
+  // A text sink that writes to a file on a thread of its own: the
+  // parser only formats, into blocks that the writer thread takes
+  // from a bounded queue, so a slow disk holds the parser up only
+  // once the queue is full.
+  public static class AsyncFile extends Text implements Runnable
+  {
+    private static final byte[] END = new byte[0];
+
+    private BlockingQueue<byte[]> blocks;
+    private OutputStream file;
+    private Thread writer;
+    private IOException failure;
+
+    public AsyncFile(String fname) throws IOException
+    {
+      super(null);
+      this.blocks = new ArrayBlockingQueue<byte[]>(16);
+      this.file = new FileOutputStream(fname);
+      this.dump = new TokenDump(new OutputStream() {
+        @Override
+        public void write(int b)
+        {
+          put(new byte[] { (byte) b });
+          return;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+          if (len > 0)
+            put(java.util.Arrays.copyOfRange(b, off, off + len));
+          return;
+        }
+      });
+      this.failure = null;
+      this.writer = new Thread(this, "trace writer");
+      this.writer.setDaemon(true);
+      this.writer.start();
+    }
+
+    private void put(byte[] block)
+    {
+      try {
+        this.blocks.put(block);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return;
+    }
+
+    // the writer thread
+    @Override
+    public void run()
+    {
+      try {
+        byte[] block;
+        while ((block = this.blocks.take()) != END) {
+          // after a failure, keep taking blocks so that the parser
+          // never waits for a writer that has stopped
+          if (this.failure != null)
+            continue;
+          try {
+            this.file.write(block);
+          } catch (IOException e) {
+            this.failure = e;
+          }
+        }
+      } catch (InterruptedException e) {
+        return;
+      }
+      return;
+    }
+
+    @Override
+    public void close()
+    {
+      if (this.writer == null)
+        return;
+      this.dump.flush();
+      put(END);
+      try {
+        this.writer.join();
+        this.file.close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException e) {
+        if (this.failure == null)
+          this.failure = e;
+      }
+      this.writer = null;
+      if (this.failure != null)
+        throw new UncheckedIOException(this.failure);
+      return;
+    }
+  }
+
+  // A text sink that keeps the trace in memory, for tests.
+  public static class Memory extends Text
+  {
+    private ByteArrayOutputStream bytes;
+
+    public Memory()
+    {
+      this(new ByteArrayOutputStream());
+    }
+
+    private Memory(ByteArrayOutputStream bytes)
+    {
+      super(new TokenDump(bytes));
+      this.bytes = bytes;
+    }
+
+    // the trace so far
+    public String text()
+    {
+      this.dump.flush();
+      return this.bytes.toString();
+    }
+  }
+}
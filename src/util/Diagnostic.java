@@ -0,0 +1,29 @@
+package util;
+
+// An error in a source file. Phases collect these as they go on,
+// and the driver reports them all at the end.
+public class Diagnostic
+{
+  public final String file;
+  public final int line;
+  public final int column; // -1 if unknown
+  public final String message;
+
+  public Diagnostic(String file, int line, int column, String message)
+  {
+    this.file = file;
+    this.line = line;
+    this.column = column;
+    this.message = message;
+  }
+
+  // "file:line:column: message"
+  @Override
+  public String toString()
+  {
+    if (this.column < 0)
+      return this.file + ":" + this.line + ": " + this.message;
+    return this.file + ":" + this.line + ":" + this.column + ": "
+        + this.message;
+  }
+}
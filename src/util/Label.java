@@ -2,12 +2,26 @@ package util;
 
 public class Label
 {
+  // Labels are numbered per compilation: each compilation
+  // creates its own counter, so concurrent compilations do
+  // not share (or race on) the numbering. Nothing makes
+  // labels yet; the code generator will take a counter from
+  // the compilation it runs in.
+  public static class Counter
+  {
+    private int count = 0;
+
+    public Label next()
+    {
+      return new Label(this.count++);
+    }
+  }
+
   private int i;
-  private static int count = 0;
 
-  public Label()
+  private Label(int i)
   {
-    i = count++;
+    this.i = i;
   }
 
   @Override
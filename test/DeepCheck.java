@@ -0,0 +1,83 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import control.TigerCompiler;
+import control.Options;
+import parser.Ast;
+
+// Compiles the program DeepGen prints for a depth, with both
+// parsers, on the default thread stack, and checks that it has no
+// errors and that its tree has a "while" or an "if" for every
+// level. Build it against the compiler's classes:
+//
+//   javac -d out $(find src -name '*.java')
+//   javac -cp out -d out test/DeepGen.java test/DeepCheck.java
+//   java -cp out DeepCheck 100000
+public class DeepCheck
+{
+  public static void print(String s)
+  {
+    System.out.println (s);
+  }
+
+  public static void usage()
+  {
+    print ("Deep nesting check.\nUsage: java DeepCheck <depth>");
+    System.exit(1);
+  }
+
+  // "true" if the program compiles, with a "while" or an "if" for
+  // every level
+  public static boolean check(String name, Options options, byte[] text, int depth) throws Exception
+  {
+    long start = System.nanoTime();
+    TigerCompiler.Result result = new TigerCompiler(options).compile("Deep.java", text);
+    long ms = (System.nanoTime() - start) / 1000000;
+    if (!result.ok()){
+      print (name + ": " + result.diagnostics.size() + " errors, the first: " + result.diagnostics.get(0));
+      return false;
+    }
+    Ast ast = result.ast;
+    int levels = 0;
+    for (int n=0; n<ast.size(); n++)
+      if (ast.kind(n) == Ast.IF || ast.kind(n) == Ast.WHILE)
+        levels++;
+    // printing the tree walks it to the bottom as well
+    int length = ast.toString().length();
+    print (name + ": " + ast.size() + " nodes, " + levels + " levels, " + length + " characters printed, " + ms + "ms");
+    return levels == depth;
+  }
+
+  public static void main(String[] args) throws Exception
+  {
+    if (args.length<1)
+      usage();
+
+    int depth = 0;
+    try{
+      depth = Integer.parseInt(args[0]);
+    }
+    catch (Exception e){
+      System.out.println("Expects an integer");
+      usage();
+    }
+
+    // the program, as DeepGen prints it
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PrintStream stdout = System.out;
+    System.setOut(new PrintStream(out));
+    try{
+      DeepGen.main(new String[] { Integer.toString(depth) });
+    }
+    finally{
+      System.setOut(stdout);
+    }
+    byte[] text = out.toByteArray();
+
+    boolean ok = check("hand parser", Options.DEFAULT, text, depth);
+    ok &= check("LL parser", new Options.Builder().llParser(true).build(), text, depth);
+    print (ok ? "ok" : "FAILED");
+    if (!ok)
+      System.exit(1);
+  }
+}
@@ -0,0 +1,56 @@
+public class DeepGen
+{
+  public static void print(String s)
+  {
+    System.out.println (s);
+  }
+
+  public static void usage()
+  {
+    print ("Deep nesting generator: <depth> nested while/if blocks.\nUsage: java DeepGen <depth>");
+    System.exit(1);
+  }
+
+  public static void main(String[] args)
+  {
+    if (args.length<1)
+      usage();
+
+    int depth = 0;
+    try{
+      depth = Integer.parseInt(args[0]);
+    }
+    catch (Exception e){
+      System.out.println("Expects an integer");
+      usage();
+    }
+
+    print ("class Deep\n{");
+    print ("\tpublic static void main (String[] args)");
+    print ("\t{\n\t\tSystem.out.println (new Foo().foo());");
+    print ("\t}\n}\n");
+
+    print ("class Foo\n{");
+    print ("\tpublic int foo()");
+    print ("\t{");
+    print ("\t\tint sum;\n");
+    print ("\n\t\tsum = 0;");
+    // one level per line, without indentation, so that the file
+    // grows linearly with the depth
+    for (int i=0; i<depth; i++)
+      if (i % 2 == 0)
+        print ("while (sum < 1) {");
+      else
+        print ("if (sum < 1) {");
+    print ("sum = sum + 1;");
+    for (int i=depth-1; i>=0; i--)
+      if (i % 2 == 0)
+        print ("}");
+      else
+        print ("} else sum = 0;");
+    print ("\t\treturn sum;");
+    print ("\t}");
+    print ("}");
+    return;
+  }
+}
@@ -0,0 +1,116 @@
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import control.Options;
+import lexer.Lexer;
+import lexer.Source;
+import lexer.TokenBuffer;
+import lexer.TokenDump;
+import lexer.Token.Kind;
+
+// Lexes the files given all at once on a pool of threads, over and
+// over, and checks that every file gives the same tokens as when it
+// is lexed alone, first. Build it against the compiler's classes:
+//
+//   javac -d out $(find src -name '*.java')
+//   javac -cp out -d out test/LexRace.java
+//   java -cp out LexRace 8 50 test/*.java
+public class LexRace
+{
+  public static void print(String s)
+  {
+    System.out.println (s);
+  }
+
+  public static void usage()
+  {
+    print ("Concurrent lexing check.\nUsage: java LexRace <threads> <rounds> <file>...");
+    System.exit(1);
+  }
+
+  // the tokens of "fname", one per line, or the exception lexing it
+  // threw
+  public static String lex(String fname)
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TokenDump dump = new TokenDump(out);
+    try{
+      Source source = Source.open(fname);
+      try{
+        TokenBuffer tokens = Lexer.tokenize(fname, source, Options.DEFAULT, null);
+        TokenBuffer.Cursor token = tokens.cursor();
+        while (token.kind!=Kind.TOKEN_EOF){
+          dump.write(tokens, token.index());
+          token.advance();
+        }
+      }
+      finally{
+        source.close();
+      }
+      dump.flush();
+    }
+    catch (Exception e){
+      dump.flush();
+      return out.toString() + e;
+    }
+    return out.toString();
+  }
+
+  public static void main(String[] args) throws Exception
+  {
+    if (args.length<3)
+      usage();
+
+    int threads = 0;
+    int rounds = 0;
+    try{
+      threads = Integer.parseInt(args[0]);
+      rounds = Integer.parseInt(args[1]);
+    }
+    catch (Exception e){
+      System.out.println("Expects an integer");
+      usage();
+    }
+
+    int files = args.length - 2;
+    String[] expected = new String[files];
+    for (int i=0; i<files; i++)
+      expected[i] = lex(args[i + 2]);
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<String>> results = new ArrayList<Future<String>>();
+    for (int r=0; r<rounds; r++)
+      for (int i=0; i<files; i++){
+        final String fname = args[i + 2];
+        results.add(pool.submit(new Callable<String>()
+        {
+          public String call()
+          {
+            return lex(fname);
+          }
+        }));
+      }
+
+    int mismatches = 0;
+    try{
+      for (int j=0; j<results.size(); j++){
+        int i = j % files;
+        if (!results.get(j).get().equals(expected[i])){
+          print ("mismatch: " + args[i + 2] + ", round " + j / files);
+          mismatches++;
+        }
+      }
+    }
+    finally{
+      pool.shutdownNow();
+    }
+    print (results.size() + " lexes, " + mismatches + " mismatches");
+    if (mismatches>0)
+      System.exit(1);
+  }
+}
@@ -0,0 +1,74 @@
+#!/bin/bash
+# Builds the compiler at two revisions and checks that they print the
+# same for every test program: the tokens (-testlexer), the parser's
+# trace (-trace tokens, which ends with the syntax errors), and both
+# at once (-lex -trace tokens). Lines of stack traces are left out.
+#
+#   test/regress.sh <old> [<new>] [<option>...]
+#
+# <new> is the working tree if it is not given; the options (those
+# of Tiger, "-pipeline" or "-parser ll" say) are passed to both. A
+# commit that means to change the output shows up here as a
+# difference, which the diff printed should account for. To check
+# a commit against its parent:
+#
+#   test/regress.sh <commit>^ <commit>
+#   test/regress.sh <commit>^ <commit> -pipeline
+
+if [ $# -lt 1 ]; then
+  echo "Usage: test/regress.sh <old> [<new>] [<option>...]"
+  exit 1
+fi
+root=$(git rev-parse --show-toplevel) || exit 1
+old=$1
+shift
+new=
+if [ $# -gt 0 ] && [ "${1#-}" = "$1" ]; then
+  new=$1
+  shift
+fi
+
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+# build revision $1 (the working tree if empty) into $work/$2
+build()
+{
+  mkdir -p "$work/$2/out"
+  if [ -z "$1" ]; then
+    cp -r "$root/src" "$root/test" "$work/$2" || exit 1
+  else
+    git -C "$root" archive "$1" src test | tar -x -C "$work/$2" || exit 1
+  fi
+  javac -nowarn -d "$work/$2/out" $(find "$work/$2/src" -name '*.java') 2>&1 \
+    | grep -v '^Note' | grep . && { echo "$2 ($1) does not build"; exit 1; }
+  return 0
+}
+build "$old" old
+build "$new" new
+
+# the outputs of build $1 on file $2, with options $3...
+outputs()
+{
+  local b=$1 f=$2
+  shift 2
+  java -cp "$work/$b/out" Tiger -testlexer "$f" "$@" 2>&1
+  java -cp "$work/$b/out" Tiger -trace tokens "$f" "$@" 2>&1
+  java -cp "$work/$b/out" Tiger -lex -trace tokens "$f" "$@" 2>&1
+}
+
+fail=0
+for f in "$work"/new/test/*.java; do
+  outputs old "$f" "$@" | grep -v $'^\tat ' > "$work/old.txt"
+  outputs new "$f" "$@" | grep -v $'^\tat ' > "$work/new.txt"
+  if ! cmp -s "$work/old.txt" "$work/new.txt"; then
+    echo "differs: test/$(basename "$f")"
+    diff "$work/old.txt" "$work/new.txt" | sed "s|$work/new/||g" | head -20
+    fail=1
+  fi
+done
+if [ $fail -ne 0 ]; then
+  echo "FAILED"
+  exit 1
+fi
+echo "ok"